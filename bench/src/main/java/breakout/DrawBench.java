@@ -0,0 +1,105 @@
+package breakout;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.*;
+
+// JMH benchmark of drawing one frame, with no window. JavaFX runs on the
+// Monocle 'headless' platform, so this works on a machine with no screen
+// and gives the same numbers with or without one.
+// Run with  java -jar bench/target/benchmarks.jar DrawBench
+
+/**
+ * <h2>DrawBench times View.drawPicture on canvases which are not on the screen.</h2>
+ * <p>A game with <b>balls</b> balls is played for FRAMES updates first, and a Frame is kept
+ * for each update. The benchmark then draws those frames one after the other, half way
+ * between updates (so the positions are interpolated, as they are on the screen). With
+ * more than 64 balls the View redraws the whole front canvas instead of just the damaged
+ * rectangles.</p>
+ * <p>With <b>bricks</b> 44 the game is the normal wall in a 600 x 800 window. With more, it is
+ * a level file (see LevelBench) far bigger than the window, so the camera follows the ball
+ * and the wall is drawn again on every frame - but only the bricks in the window, so the time
+ * should be the same for 100,000 bricks as for 1,000,000.</p>
+ * <p>What is timed is the work on the JavaFX thread - recording the drawing commands. The
+ * canvases are never shown, so the commands pile up in the canvas; new canvases are made
+ * before each iteration (not timed) to throw them away.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless",
+                                  "-Dprism.order=sw", "-Xmx2g"})
+public class DrawBench
+{
+    private static final int FRAMES = 1024;     // Updates recorded (then drawn over and over)
+
+    @Param({"1", "20", "100"})
+    public int balls;
+
+    @Param({"44", "100000", "1000000"})
+    public int bricks;
+
+    private Frame[] frames;
+    private View view;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException, IOException
+    {
+        Debug.set(false);
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        Model model = new Model(600, 800);
+        if (bricks > 44)
+        {
+            Path file = LevelBench.write(bricks);
+            LevelFile level = LevelFile.open(file);
+            Files.delete(file);                 // (it stays mapped)
+            model = new Model(level.getWidth(), level.getHeight());
+            model.setLevel(level);
+        }
+        model.initialiseGame();
+        if (balls > 1) model.addBalls(balls - 1);
+        frames = new Frame[FRAMES];
+        for (int f = 0; f < FRAMES; f++)
+        {
+            model.updateGame();
+            frames[f] = new Frame();
+            frames[f].copyFrom(model, model.getTick());
+        }
+    }
+
+    // new canvases (with no drawing commands waiting in them) for every iteration
+    @Setup(Level.Iteration)
+    public void newView() throws InterruptedException
+    {
+        View v = new View(600, 800);
+        CountDownLatch made = new CountDownLatch(1);
+        Platform.runLater(() -> { v.startOffscreen(); made.countDown(); });
+        made.await();
+        view = v;
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        Platform.exit();
+    }
+
+    @Benchmark
+    public void drawPicture()
+    {
+        Frame f = frames[next];
+        next = (next + 1) % FRAMES;
+        view.drawFrame(f, f.getTickTime() + f.getTickNanos() / 2);
+    }
+}
@@ -0,0 +1,43 @@
+package breakout;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// JMH benchmark of the overlap test used for every collision in the game.
+// Run with  java -jar bench/target/benchmarks.jar HitByBench
+
+/**
+ * <h2>HitByBench times GameObj.hitBy for a pair that touches and a pair that does not.</h2>
+ * <p>The positions are in fields (not constants) so the JIT can not work the answer out
+ * ahead of time.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HitByBench
+{
+    private GameObj ball, brick, farBrick;
+
+    @Setup
+    public void setup()
+    {
+        ball     = new GameObj(100, 100, 30, 30, Palette.RED);
+        brick    = new GameObj(120, 110, 50, 30, Palette.YELLOW);   // overlaps the ball
+        farBrick = new GameObj(300, 400, 50, 30, Palette.YELLOW);   // nowhere near it
+    }
+
+    @Benchmark
+    public boolean hit()
+    {
+        return ball.hitBy(brick);
+    }
+
+    @Benchmark
+    public boolean miss()
+    {
+        return ball.hitBy(farBrick);
+    }
+}
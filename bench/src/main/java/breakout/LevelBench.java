@@ -0,0 +1,80 @@
+package breakout;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// JMH benchmark of opening a level file, with levels of different sizes.
+// Run with  java -jar bench/target/benchmarks.jar LevelBench -prof gc
+// (-prof gc shows the heap used to open a level - gc.alloc.rate.norm)
+
+/**
+ * <h2>LevelBench times LevelFile.open for levels of 1,000 to 1,000,000 bricks.</h2>
+ * <p>open maps the file and makes the BrickStore and BrickGrid for a game, as
+ * Model.initialiseGame does. The time should stay much the same however big the level is,
+ * and the heap used should only grow by the live bits (one bit per brick and one per grid
+ * cell). readAll reads the whole file onto the heap instead, to show what that would cost.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LevelBench
+{
+    @Param({"1000", "100000", "1000000"})
+    public int bricks;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        Debug.set(false);
+        file = write(bricks);
+    }
+
+    /**
+     * Write a level of a square wall of 50 x 20 bricks (taking 1 to 3 hits) to a temporary
+     * file, with room below the wall for the ball and bat.
+     * @param bricks   how many bricks
+     * @return         the file
+     */
+    static Path write( int bricks ) throws IOException
+    {
+        int across = (int) Math.sqrt(bricks);
+        BrickStore store = new BrickStore(bricks);
+        for (int i = 0; i < bricks; i++)
+        {
+            store.add(10 + (i % across) * 52, 100 + (i / across) * 22, 50, 20,
+                      Palette.YELLOW, BrickStore.NORMAL, 1 + i % 3);
+        }
+        Path file = Files.createTempFile("breakout", ".lvl");
+        LevelFile.write(file, 20 + across * 52, 100 + (bricks / across + 1) * 22 + 400, store);
+        return file;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int open() throws IOException
+    {
+        LevelFile level = LevelFile.open(file);
+        BrickStore store = level.newBricks();
+        BrickGrid grid = level.newGrid();
+        return store.liveCount() + (grid != null ? 1 : 0);
+    }
+
+    @Benchmark
+    public int readAll() throws IOException
+    {
+        return Files.readAllBytes(file).length;
+    }
+}
@@ -0,0 +1,43 @@
+package breakout;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// JMH benchmark of moving the bat (what a key press costs the game).
+// Run with  java -jar bench/target/benchmarks.jar MoveBatBench
+
+/**
+ * <h2>MoveBatBench times Model.moveBat.</h2>
+ * <p>The bat is moved right and then left again, so it stays in the same place however long
+ * the benchmark runs. moveBat only queues a command, so the commands are then run as the
+ * start of an update would run them - the time is for sending and running both. Debug
+ * printing is off, as it is in a real game.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoveBatBench
+{
+    private Model model;
+
+    @Setup
+    public void setup()
+    {
+        Debug.set(false);
+        model = new Model(600, 800);
+        model.initialiseGame();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int moveBat()
+    {
+        model.moveBat(1);
+        model.moveBat(-1);
+        model.runCommands();
+        return model.bat.topX;
+    }
+}
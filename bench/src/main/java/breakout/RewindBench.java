@@ -0,0 +1,57 @@
+package breakout;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// JMH benchmark of the rewind history - recording an update, and going back.
+// Run with  java -jar bench/target/benchmarks.jar RewindBench
+
+/**
+ * <h2>RewindBench times Model.updateGame with a Rewind attached, and Rewind.seek.</h2>
+ * <p>A minute of the game (3000 updates, a keyframe every 50) is played first, with
+ * <b>balls</b> balls. update is one more update (compare it with UpdateGameBench to see what
+ * recording costs). seek goes back 1 to 2999 updates - a keyframe is restored and up to 49
+ * updates of changes applied - without throwing the history away, so it can be done over
+ * and over.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RewindBench
+{
+    @Param({"1", "100"})
+    public int balls;
+
+    private Model model;
+    private Rewind rewind;
+    private int back = 0;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Debug.set(false);
+        model  = new Model(600, 800);
+        rewind = new Rewind(3000, 50, 1 << 20);
+        model.setRewind(rewind);
+        model.initialiseGame();
+        if (balls > 1) model.addBalls(balls - 1);
+        model.runTicks(3000);
+    }
+
+    @Benchmark
+    public long update()
+    {
+        model.updateGame();
+        return model.getTick();
+    }
+
+    @Benchmark
+    public int seek()
+    {
+        back = (back + 37) % 2999;
+        return rewind.seek(model, back + 1);
+    }
+}
@@ -0,0 +1,76 @@
+package breakout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// JMH benchmark of taking a snapshot of a game and restoring it.
+// Run with  java -jar bench/target/benchmarks.jar SnapshotBench -prof gc
+// (-prof gc shows the heap used - only the small int and long views of the
+// buffer, under 200 bytes however big the game is)
+
+/**
+ * <h2>SnapshotBench times Model.snapshot and Model.restore.</h2>
+ * <p>With <b>bricks</b> 44 the game is the normal wall, with 1,000,000 it is a level file
+ * (see LevelBench) of bricks which take 1 to 3 hits. The game is played for a while first,
+ * so some bricks are broken or damaged. This is what Model does for every checkpoint (once
+ * a second in the game), so for a game on the screen it should take far less than a frame
+ * (16 ms). The snapshot is written into the same direct buffer every time.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx2g"})
+public class SnapshotBench
+{
+    @Param({"1", "1000"})
+    public int balls;
+
+    @Param({"44", "1000000"})
+    public int bricks;
+
+    private Model model;
+    private ByteBuffer buffer;
+    private ByteBuffer saved;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        Debug.set(false);
+        model = new Model(600, 800);
+        if (bricks > 44)
+        {
+            Path file = LevelBench.write(bricks);
+            LevelFile level = LevelFile.open(file);
+            Files.delete(file);                 // (it stays mapped)
+            model = new Model(level.getWidth(), level.getHeight());
+            model.setLevel(level);
+        }
+        model.initialiseGame();
+        if (balls > 1) model.addBalls(balls - 1);
+        model.runTicks(2000);
+        buffer = ByteBuffer.allocateDirect(model.snapshotSize());
+        saved  = ByteBuffer.allocateDirect(model.snapshotSize());
+        model.snapshot(saved);
+        saved.flip();
+    }
+
+    @Benchmark
+    public int snapshot()
+    {
+        buffer.clear();
+        return model.snapshot(buffer);
+    }
+
+    @Benchmark
+    public long restore()
+    {
+        model.restore(saved.duplicate());
+        return model.getTick();
+    }
+}
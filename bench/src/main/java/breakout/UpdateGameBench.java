@@ -0,0 +1,63 @@
+package breakout;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// JMH benchmark of one game update with walls of different sizes.
+// Run with  java -jar bench/target/benchmarks.jar UpdateGameBench
+
+/**
+ * <h2>UpdateGameBench times Model.updateGame.</h2>
+ * <p>Every measurement is the first TICKS updates of a new game, so the same updates (the
+ * same bounces and the same bricks hit) are timed on every run and on every commit. The
+ * wall is <b>bricks</b> bricks (4 x 11, 16 x 44 or 40 x 110); the window is made big
+ * enough to hold it. The bat does not move.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UpdateGameBench
+{
+    private static final int TICKS = 2000;      // Updates timed from each new game
+
+    @Param({"44", "704", "4400"})
+    public int bricks;
+
+    private Model model;
+    private int width, height;
+    private GameConfig config;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Debug.set(false);
+        int scale = (int) Math.round(Math.sqrt(bricks / 44.0));    // 1, 4 or 10
+        config = new GameConfig();
+        config.BRICK_ROWS     = 4 * scale;
+        config.BRICKS_PER_ROW = 11 * scale;
+        width  = 20 + config.BRICKS_PER_ROW * (config.BRICK_WIDTH + 2);
+        height = 100 + config.BRICK_ROWS * 32 + 400;
+    }
+
+    // a new game before every measurement (this is not timed)
+    @Setup(Level.Invocation)
+    public void newGame()
+    {
+        model = new Model(width, height, config);
+        model.initialiseGame();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public int updateGame()
+    {
+        for (int t = 0; t < TICKS; t++)
+        {
+            model.updateGame();
+        }
+        return model.getScore();
+    }
+}
@@ -0,0 +1,139 @@
+package breakout;
+
+// All the balls in the game. Like the bricks (see BrickStore) they are kept
+// as plain arrays of numbers: ball number i is at x[i], y[i] (plus a
+// fraction of a pixel, subX[i] and subY[i]) and is moving in direction
+// dirX[i], dirY[i]. The directions are 16.16 fixed point numbers (see
+// Fixed.java) - the ball moves dirX[i] * speed / Fixed.ONE pixels across
+// and dirY[i] * speed / Fixed.ONE down in each update, so (Fixed.ONE,
+// Fixed.ONE) is 45 degrees, and the bat can send the ball off at other
+// angles. All balls are the same size and colour. There is normally one
+// ball, but there can be thousands (for 'ball storm' power-ups and stress
+// tests).
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <h2>BallStore holds the balls as parallel arrays.</h2>
+ * <p>prevX and prevY hold where each ball was at the start of the latest update, so the View
+ * can draw the balls part of the way between two updates.</p>
+ */
+public class BallStore
+{
+    public int[] x     = new int[4];    // Position - top left corner X
+    public int[] y     = new int[4];    // Position - top left corner Y
+    public int[] subX  = new int[4];    // Fraction of a pixel in X (0 to Fixed.FRAC)
+    public int[] subY  = new int[4];    // Fraction of a pixel in Y (0 to Fixed.FRAC)
+    public int[] dirX  = new int[4];    // Direction X (fixed point - Fixed.ONE is 1)
+    public int[] dirY  = new int[4];    // Direction Y (fixed point - Fixed.ONE is 1)
+    public int[] prevX = new int[4];    // X at the start of the latest update
+    public int[] prevY = new int[4];    // Y at the start of the latest update
+
+    public final int width;             // Width of every ball
+    public final int height;            // Height of every ball
+    public final int colour;            // Colour of every ball (index into Palette)
+
+    private int size = 0;               // Number of balls
+
+    /**
+     * Create an empty set of balls.
+     * @param w   width of a ball
+     * @param h   height of a ball
+     * @param c   colour of the balls (a Palette index)
+     */
+    public BallStore( int w, int h, int c )
+    {
+        width  = w;
+        height = h;
+        colour = c;
+    }
+
+    /**
+     * Add a ball.
+     * @param bx, by       position (top left corner)
+     * @param dx, dy       direction (fixed point - Fixed.ONE or -Fixed.ONE each for 45 degrees)
+     * @return the index of the new ball
+     */
+    public int add( int bx, int by, int dx, int dy )
+    {
+        if (size == x.length)
+        {
+            int n = size * 2;
+            x = Arrays.copyOf(x, n);          y = Arrays.copyOf(y, n);
+            subX = Arrays.copyOf(subX, n);    subY = Arrays.copyOf(subY, n);
+            dirX = Arrays.copyOf(dirX, n);    dirY = Arrays.copyOf(dirY, n);
+            prevX = Arrays.copyOf(prevX, n);  prevY = Arrays.copyOf(prevY, n);
+        }
+        int i = size++;
+        x[i] = prevX[i] = bx;
+        y[i] = prevY[i] = by;
+        subX[i] = subY[i] = 0;
+        dirX[i] = dx;
+        dirY[i] = dy;
+        return i;
+    }
+
+    /**
+     * @return the number of balls
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Remember where every ball is now (at the start of an update).
+     */
+    public void savePositions()
+    {
+        System.arraycopy(x, 0, prevX, 0, size);
+        System.arraycopy(y, 0, prevY, 0, size);
+    }
+
+    /**
+     * Write the balls into a snapshot (see Snapshot).
+     */
+    void save( ByteBuffer out )
+    {
+        out.putInt(size);
+        Snapshot.putInts(out, x, size);      Snapshot.putInts(out, y, size);
+        Snapshot.putInts(out, subX, size);   Snapshot.putInts(out, subY, size);
+        Snapshot.putInts(out, dirX, size);   Snapshot.putInts(out, dirY, size);
+        Snapshot.putInts(out, prevX, size);  Snapshot.putInts(out, prevY, size);
+    }
+
+    /**
+     * Read the balls back from a snapshot. The arrays are only made bigger if the snapshot has
+     * more balls than there is room for.
+     */
+    void restore( ByteBuffer in )
+    {
+        int n = in.getInt();
+        if (n > x.length)
+        {
+            x = new int[n];      y = new int[n];
+            subX = new int[n];   subY = new int[n];
+            dirX = new int[n];   dirY = new int[n];
+            prevX = new int[n];  prevY = new int[n];
+        }
+        Snapshot.getInts(in, x, n);      Snapshot.getInts(in, y, n);
+        Snapshot.getInts(in, subX, n);   Snapshot.getInts(in, subY, n);
+        Snapshot.getInts(in, dirX, n);   Snapshot.getInts(in, dirY, n);
+        Snapshot.getInts(in, prevX, n);  Snapshot.getInts(in, prevY, n);
+        size = n;
+    }
+
+    /**
+     * Detect collision between ball i and a game object (the same test as GameObj.hitBy).
+     */
+    public boolean hitBy( int i, GameObj obj )
+    {
+        boolean separate =
+            x[i] >= obj.topX + obj.width    ||
+            x[i] + width <= obj.topX        ||
+            y[i] >= obj.topY + obj.height   ||
+            y[i] + height <= obj.topY;
+        return !separate;
+    }
+}
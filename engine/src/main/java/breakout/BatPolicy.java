@@ -0,0 +1,69 @@
+package breakout;
+
+import java.util.Random;
+
+// A bot which plays the bat - used to run lots of games without a person at
+// the keyboard (see BatchRunner.java). Each call looks at the Model and says
+// which way the bat should move on this update.
+
+/**
+ * <h2>BatPolicy decides how the bat moves in a game nobody is playing.</h2>
+ * <p>move is called once before each update and returns -1 (left), 0 (stay) or 1 (right),
+ * the same direction as Model.moveBat uses. A policy can keep its own state, so each game
+ * needs its own policy object.</p>
+ */
+public interface BatPolicy
+{
+    /**
+     * @param model   the game being played (only read, never changed)
+     * @return        -1 to move the bat left, 1 to move it right, 0 to leave it
+     */
+    int move( Model model );
+
+    /**
+     * A policy which moves the bat under the lowest ball that is coming down. With the given
+     * chance on each update it makes a random move instead, so games with different seeds
+     * play out differently.
+     * @param seed     seed for the random mistakes
+     * @param mistake  chance (0 to 1) of a random move on each update
+     * @return         the policy
+     */
+    static BatPolicy tracking( long seed, double mistake )
+    {
+        Random random = new Random(seed);
+        return model -> {
+            if (random.nextDouble() < mistake)
+            {
+                return random.nextInt(3) - 1;
+            }
+            BallStore balls = model.balls;
+            int best = -1;
+            for (int i = 0; i < balls.size(); i++)
+            {
+                if (balls.dirY[i] > 0 && (best < 0 || balls.y[i] > balls.y[best]))
+                {
+                    best = i;
+                }
+            }
+            if (best < 0) return 0;             // nothing coming down
+            GameObj bat = model.bat;
+            int target = balls.x[best] + balls.width / 2;
+            int centre = bat.topX + bat.width / 2;
+            int slack  = model.BAT_MOVE;        // close enough - stops the bat shaking
+            if (target < centre - slack) return -1;
+            if (target > centre + slack) return 1;
+            return 0;
+        };
+    }
+
+    /**
+     * A policy which ignores the ball and sweeps the bat from one side to the other, turning
+     * round every given number of updates.
+     * @param period   number of updates between turns
+     * @return         the policy
+     */
+    static BatPolicy sweep( int period )
+    {
+        return model -> (model.getTick() / period) % 2 == 0 ? 1 : -1;
+    }
+}
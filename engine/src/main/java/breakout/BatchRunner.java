@@ -0,0 +1,272 @@
+package breakout;
+
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Run a lot of headless games with different gameplay values and write a
+// summary of each set of values to a CSV file - used to tune the game.
+// Usage:  java -cp engine/target/classes breakout.BatchRunner [NAME=v1,v2,...]... [games=N] [ticks=N]
+//             [policy=tracking|sweep] [seed=N] [threads=N] [out=file.csv]
+// NAME is any field of GameConfig, eg.  java breakout.BatchRunner BALL_MOVE=3,4,6 BAT_MOVE=5,8
+
+/**
+ * <h1>BatchRunner plays many headless games at once for a parameter sweep.</h1>
+ * <p>Every combination of the given GameConfig values is played the given number of times,
+ * with the bat moved by a BatPolicy. Each game is a separate task on a work stealing thread
+ * pool, so short games (which clear the wall early) do not hold up the others. Each game
+ * starts the ball in a different place, chosen from the seed, so the results can be repeated.</p>
+ * <p>A line is written to the CSV file as soon as the last game of a combination finishes,
+ * so a long sweep can be watched while it runs. A game which fails (throws an exception) is
+ * reported and counted in the failed column, and left out of the rest of the summary.</p>
+ */
+public class BatchRunner
+{
+    private static final int W = 600;           // Width  of the game area (in pixels)
+    private static final int H = 800;           // Height of the game area (in pixels)
+
+    /**
+     * The results of all the games played with one GameConfig. Each game fills in its own
+     * slot, and the game which finishes last writes the summary.
+     */
+    private static class Results
+    {
+        final GameConfig config;
+        final int[]  score;
+        final long[] ticks;
+        final int[]  bottomHits;
+        final int[]  bricksHit;
+        final boolean[] cleared;
+        final boolean[] failed;                 // the game threw an exception (not in the summary)
+        final AtomicInteger left;               // games still to finish
+
+        Results( GameConfig config, int games )
+        {
+            this.config = config;
+            score      = new int[games];
+            ticks      = new long[games];
+            bottomHits = new int[games];
+            bricksHit  = new int[games];
+            cleared    = new boolean[games];
+            failed     = new boolean[games];
+            left       = new AtomicInteger(games);
+        }
+    }
+
+    private final int games;                   // Games per GameConfig
+    private final long maxTicks;               // Longest game (in updates)
+    private final String policy;               // Name of the BatPolicy
+    private final long seed;                   // Seed for the start positions and the policy
+    private final PrintWriter out;             // Where the summaries go
+
+    private BatchRunner( int games, long maxTicks, String policy, long seed, PrintWriter out )
+    {
+        this.games    = games;
+        this.maxTicks = maxTicks;
+        this.policy   = policy;
+        this.seed     = seed;
+        this.out      = out;
+    }
+
+    /**
+     * Start a sweep.
+     * @param args   the GameConfig values to try, and the options (see the top of the file)
+     */
+    public static void main( String args[] ) throws Exception
+    {
+        int    games   = 20;
+        long   ticks   = 100_000;
+        String policy  = "tracking";
+        long   seed    = 1;
+        int    threads = Runtime.getRuntime().availableProcessors();
+        String file    = "batch.csv";
+        List<GameConfig> configs = new ArrayList<>();
+        configs.add(new GameConfig());
+
+        for (String arg : args)
+        {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected NAME=value: " + arg);
+            String name  = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (name)
+            {
+                case "games"   : games   = Integer.parseInt(value); break;
+                case "ticks"   : ticks   = Long.parseLong(value);   break;
+                case "policy"  : policy  = value;                   break;
+                case "seed"    : seed    = Long.parseLong(value);   break;
+                case "threads" : threads = Integer.parseInt(value); break;
+                case "out"     : file    = value;                   break;
+                default        : configs = vary(configs, name, value.split(","));
+            }
+        }
+
+        Debug.set(false);      // no printing from the games
+        try (PrintWriter out = new PrintWriter(new FileWriter(file)))
+        {
+            out.println(GameConfig.csvHeader() + ",policy,games,failed,cleared,score_mean,score_p10," +
+                "score_p50,score_p90,ticks_to_clear_mean,bottom_hits_mean,bricks_per_second");
+            out.flush();
+            BatchRunner runner = new BatchRunner(games, ticks, policy, seed, out);
+
+            long start = System.nanoTime();
+            long total = runner.run(configs, threads);
+            long time  = System.nanoTime() - start;
+            System.out.printf("BatchRunner: %d configs x %d games, %d ticks in %.3f s " +
+                "(%.0f ticks/s on %d threads) -> %s%n", configs.size(), games, total,
+                time / 1e9, total * 1e9 / Math.max(1, time), threads, file);
+        }
+    }
+
+    /**
+     * Make a copy of every config for each of the values of one field.
+     */
+    private static List<GameConfig> vary( List<GameConfig> configs, String name, String[] values )
+        throws ReflectiveOperationException
+    {
+        Field field = GameConfig.class.getField(name);
+        List<GameConfig> result = new ArrayList<>();
+        for (GameConfig c : configs)
+        {
+            for (String v : values)
+            {
+                GameConfig copy = c.copy();
+                field.setInt(copy, Integer.parseInt(v.trim()));
+                result.add(copy);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Play all the games and wait for them to finish.
+     * @return the total number of updates run
+     */
+    private long run( List<GameConfig> configs, int threads ) throws InterruptedException
+    {
+        ForkJoinPool pool  = new ForkJoinPool(threads);
+        long[] total = new long[1];
+        for (int c = 0; c < configs.size(); c++)
+        {
+            Results results = new Results(configs.get(c), games);
+            for (int g = 0; g < games; g++)
+            {
+                final int game  = g;
+                final long gameSeed = seed * 1_000_003L + c * 10_007L + g;
+                pool.execute(() -> {
+                    long t = play(results, game, gameSeed);
+                    synchronized (total) { total[0] += t; }
+                });
+            }
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        synchronized (total) { return total[0]; }
+    }
+
+    /**
+     * Play one game and store its result. The last game of a config writes the summary -
+     * even if a game fails (throws an exception), which is then counted in the summary.
+     * @return the number of updates run
+     */
+    private long play( Results results, int game, long gameSeed )
+    {
+        long t = 0;
+        int tickRate = 50;
+        try
+        {
+            Random random = new Random(gameSeed);
+            Model model = new Model(W, H, results.config);
+            tickRate = model.getTickRate();
+            model.initialiseGame();
+            BallStore balls = model.balls;      // start the ball somewhere different each game
+            balls.x[0]    = W / 4 + random.nextInt(W / 2);
+            balls.dirX[0] = random.nextBoolean() ? Fixed.ONE : -Fixed.ONE;
+            BatPolicy bot = policy.equals("sweep") ? BatPolicy.sweep(20 + random.nextInt(60))
+                                                   : BatPolicy.tracking(random.nextLong(), 0.05);
+
+            while (t < maxTicks && !model.isCleared())
+            {
+                int dir = bot.move(model);
+                if (dir != 0) model.moveBat(dir);
+                model.updateGame();
+                t++;
+            }
+
+            results.score[game]      = model.getScore();
+            results.ticks[game]      = t;
+            results.bottomHits[game] = model.getBottomHits();
+            results.bricksHit[game]  = model.bricks.size() - model.bricks.liveCount();
+            results.cleared[game]    = model.isCleared();
+        } catch (RuntimeException e)
+        {
+            results.failed[game] = true;
+            System.err.printf("BatchRunner: game %d of %s failed after %d updates - %s%n",
+                game, results.config.toCsv(), t, e);
+        } finally
+        {
+            if (results.left.decrementAndGet() == 0) write(results, tickRate);
+        }
+        return t;
+    }
+
+    /**
+     * Write the summary line for one config.
+     */
+    private void write( Results r, int tickRate )
+    {
+        int games = r.score.length, n = 0, cleared = 0;
+        int[] sorted = new int[games];
+        double score = 0, clearTicks = 0, bottom = 0, bricks = 0, time = 0;
+        for (int g = 0; g < games; g++)
+        {
+            if (r.failed[g]) continue;          // (no result)
+            sorted[n++] = r.score[g];
+            score  += r.score[g];
+            bottom += r.bottomHits[g];
+            bricks += r.bricksHit[g];
+            time   += (double) r.ticks[g] / tickRate;
+            if (r.cleared[g])
+            {
+                cleared++;
+                clearTicks += r.ticks[g];
+            }
+        }
+        String line;
+        if (n == 0)                             // every game failed
+        {
+            line = String.format("%s,%s,%d,%d,0,,,,,,,", r.config.toCsv(), policy, games, games);
+        }
+        else
+        {
+            sorted = Arrays.copyOf(sorted, n);
+            Arrays.sort(sorted);
+            line = String.format("%s,%s,%d,%d,%d,%.1f,%d,%d,%d,%s,%.2f,%.3f",
+                r.config.toCsv(), policy, games, games - n, cleared, score / n,
+                percentile(sorted, 10), percentile(sorted, 50), percentile(sorted, 90),
+                cleared > 0 ? String.format("%.1f", clearTicks / cleared) : "",
+                bottom / n, bricks / Math.max(time, 1e-9));
+        }
+        synchronized (out)
+        {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    /**
+     * @return the p'th percentile (nearest rank) of a sorted array
+     */
+    private static int percentile( int[] sorted, int p )
+    {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
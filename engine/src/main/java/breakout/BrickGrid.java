@@ -0,0 +1,297 @@
+package breakout;
+
+// A uniform grid over the brick wall, used to find the bricks the ball
+// might be touching without looking at every brick in the game.
+// The grid cells have the same size as the brick layout (brick size plus
+// the separation between bricks), so for the normal wall each cell holds
+// exactly one brick.
+//
+// Like the brick columns in BrickStore, the cell table is kept outside the
+// heap in the same layout as a level file, so a big level's grid is mapped
+// from the file rather than built again (see LevelFile.java). The only thing on
+// the heap is one bit per cell, set once a cell has no visible bricks left.
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * <h2>BrickGrid is the spatial index (broad phase) for brick collisions.</h2>
+ * <p>Bricks are added by their index (in the Model brick list) and their rectangle, then
+ * build() packs them into cells. query() returns the bricks in the cells that a rectangle
+ * (the ball) overlaps, skipping cells which have no visible bricks left. remove() must be
+ * called when a brick becomes invisible so that its cells are skipped once they are empty.</p>
+ * <p>The results of a query go into a Result object owned by the caller, so several
+ * threads can query the grid at the same time (as long as nobody calls remove()).
+ * queryAll() does not skip empty cells, so it only reads the cell table, which never
+ * changes - any thread can call it while the game runs (the View uses it to find the
+ * bricks on the screen).</p>
+ */
+public class BrickGrid
+{
+    private final int originX;      // X position of the top left of the grid
+    private final int originY;      // Y position of the top left of the grid
+    private final int cellW;        // Width of a cell (brick pitch in x)
+    private final int cellH;        // Height of a cell (brick pitch in y)
+    private final int cols;         // Number of cells across
+    private final int rows;         // Number of cells down
+
+    private IntBuffer cellStart;    // First entry of each cell in cellItems (cols*rows+1 of them)
+    private IntBuffer cellItems;    // Brick indexes, grouped by cell
+    private IntBuffer itemHome;     // First cell (top left) the brick of each entry is in
+    private final long[] empty;     // One bit per cell, set when it has no visible bricks
+
+    private int[] addIndex = new int[16];   // bricks added before build() - index
+    private int[] addCell  = new int[16];   //                            - cell
+    private int[] addHome  = new int[16];   //                            - first cell
+    private int   added    = 0;             // number of (brick, cell) pairs added
+
+    /**
+     * The bricks found by a query. Each thread which queries the grid needs its own.
+     */
+    public static class Result
+    {
+        public int[] found = new int[16];   // brick indexes found
+    }
+
+    /**
+     * Create an empty grid.
+     * @param x        X position of the first cell
+     * @param y        Y position of the first cell
+     * @param cellW    width of each cell
+     * @param cellH    height of each cell
+     * @param width    total width the grid must cover (from x)
+     * @param height   total height the grid must cover (from y)
+     */
+    public BrickGrid( int x, int y, int cellW, int cellH, int width, int height )
+    {
+        originX    = x;
+        originY    = y;
+        this.cellW = cellW;
+        this.cellH = cellH;
+        cols = Math.max(1, (width  + cellW - 1) / cellW);
+        rows = Math.max(1, (height + cellH - 1) / cellH);
+        empty = new long[(cols * rows + 63) >>> 6];
+    }
+
+    /**
+     * Use a cell table which is already built (part of a level file mapped into memory).
+     * @param table   cellStart (cols*rows+1 ints), then cellItems and itemHome (entries ints each)
+     */
+    BrickGrid( int x, int y, int cellW, int cellH, int cols, int rows, int entries, ByteBuffer table )
+    {
+        originX    = x;
+        originY    = y;
+        this.cellW = cellW;
+        this.cellH = cellH;
+        this.cols  = cols;
+        this.rows  = rows;
+        empty = new long[(cols * rows + 63) >>> 6];
+        int cells = cols * rows;
+        cellStart = ints(table, 0, cells + 1);
+        cellItems = ints(table, 4 * (cells + 1), entries);
+        itemHome  = ints(table, 4 * (cells + 1 + entries), entries);
+        addIndex = addCell = addHome = null;
+    }
+
+    // n ints from a buffer, starting at byte 'at'
+    private static IntBuffer ints( ByteBuffer b, int at, int n )
+    {
+        return b.slice(at, 4 * n).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    // a new (off heap) IntBuffer in the level file layout
+    private static IntBuffer ints( int n )
+    {
+        return ints(ByteBuffer.allocateDirect(Math.max(4, 4 * n)), 0, n);
+    }
+
+    /**
+     * Add a brick to every cell its rectangle overlaps. Call build() after adding all bricks.
+     * @param index    index of the brick
+     */
+    public void add( int index, int x, int y, int w, int h )
+    {
+        int c0 = col(x), c1 = col(x + w - 1);
+        int r0 = row(y), r1 = row(y + h - 1);
+        for (int r = r0; r <= r1; r++)
+        {
+            for (int c = c0; c <= c1; c++)
+            {
+                if (added == addIndex.length)
+                {
+                    addIndex = Arrays.copyOf(addIndex, added * 2);
+                    addCell  = Arrays.copyOf(addCell,  added * 2);
+                    addHome  = Arrays.copyOf(addHome,  added * 2);
+                }
+                addIndex[added] = index;
+                addCell[added]  = r * cols + c;
+                addHome[added]  = r0 * cols + c0;
+                added++;
+            }
+        }
+    }
+
+    /**
+     * Pack the added bricks into cells (a counting sort on the cell number).
+     */
+    public void build()
+    {
+        int cells = cols * rows;
+        int[] start = new int[cells + 1];
+        for (int i = 0; i < added; i++) start[addCell[i] + 1]++;
+        for (int c = 0; c < cells; c++) start[c + 1] += start[c];
+        cellStart = ints(cells + 1);
+        cellItems = ints(added);
+        itemHome  = ints(added);
+        cellStart.put(0, start, 0, cells + 1);
+        int[] next = Arrays.copyOf(start, cells);
+        for (int i = 0; i < added; i++)
+        {
+            int at = next[addCell[i]]++;
+            cellItems.put(at, addIndex[i]);
+            itemHome.put(at, addHome[i]);
+        }
+        addIndex = addCell = addHome = null;    // not needed any more
+    }
+
+    /**
+     * Tell the grid that a brick has become invisible, so its cells can be skipped once they
+     * have no visible bricks left.
+     * @param b        the brick
+     * @param bricks   the bricks (brick b must already be invisible)
+     */
+    public void remove( int b, BrickStore bricks )
+    {
+        int c0 = col(bricks.x(b)), c1 = col(bricks.x(b) + bricks.w(b) - 1);
+        int r0 = row(bricks.y(b)), r1 = row(bricks.y(b) + bricks.h(b) - 1);
+        for (int r = r0; r <= r1; r++)
+        {
+            for (int c = c0; c <= c1; c++)
+            {
+                int cell = r * cols + c, i = cellStart.get(cell), end = cellStart.get(cell + 1);
+                while (i < end && !bricks.isLive(cellItems.get(i))) i++;
+                if (i == end) empty[cell >>> 6] |= 1L << cell;     // none left here
+            }
+        }
+    }
+
+    /**
+     * Find the bricks in the (live) cells overlapping a rectangle. The brick indexes are put
+     * in out.found, each brick at most once. The caller still has to check each brick for
+     * visibility and an exact overlap.
+     * @param out   where to put the bricks found
+     * @return      the number of bricks found
+     */
+    public int query( int x, int y, int w, int h, Result out )
+    {
+        return find(x, y, w, h, out, true);
+    }
+
+    /**
+     * Find the bricks in all the cells overlapping a rectangle, visible or not. The brick
+     * indexes are put in out.found, each brick at most once. Safe to call from any thread.
+     * @param out   where to put the bricks found
+     * @return      the number of bricks found
+     */
+    public int queryAll( int x, int y, int w, int h, Result out )
+    {
+        return find(x, y, w, h, out, false);
+    }
+
+    // query, skipping the empty cells or not
+    private int find( int x, int y, int w, int h, Result out, boolean skipEmpty )
+    {
+        int n = 0;
+        // outside the grid altogether - nothing to find
+        if (x + w <= originX || y + h <= originY ||
+            x >= originX + cols * cellW || y >= originY + rows * cellH) return 0;
+        int[] found = out.found;
+        int c0 = col(x), c1 = col(x + w - 1);
+        int r0 = row(y), r1 = row(y + h - 1);
+        for (int r = r0; r <= r1; r++)
+        {
+            for (int c = c0; c <= c1; c++)
+            {
+                int cell = r * cols + c;
+                if (skipEmpty && (empty[cell >>> 6] & (1L << cell)) != 0) continue;   // no visible bricks here
+                for (int i = cellStart.get(cell), end = cellStart.get(cell + 1); i < end; i++)
+                {
+                    // a brick in several cells is only returned from the first of
+                    // its cells which is inside the query
+                    int home = itemHome.get(i);
+                    if (home != cell &&
+                        cell != Math.max(r0, home / cols) * cols + Math.max(c0, home % cols)) continue;
+                    if (n == found.length) out.found = found = Arrays.copyOf(found, n * 2);
+                    found[n++] = cellItems.get(i);
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * The grid's numbers for the level file header: originX, originY, cellW, cellH, cols,
+     * rows and the number of entries in the cell table.
+     */
+    int[] header()
+    {
+        return new int[] { originX, originY, cellW, cellH, cols, rows, cellItems.limit() };
+    }
+
+    /**
+     * Write the cell table in the level file layout (see LevelFile.java).
+     * @param out   where to write it
+     */
+    void writeTo( WritableByteChannel out ) throws IOException
+    {
+        IntBuffer[] table = { cellStart, cellItems, itemHome };
+        for (IntBuffer t : table)
+        {
+            ByteBuffer b = ByteBuffer.allocate(4 * t.limit()).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < t.limit(); i++) b.putInt(t.get(i));
+            b.flip();
+            BrickStore.writeFully(out, b);
+        }
+    }
+
+    /**
+     * @return the number of longs holding the empty cell bits
+     */
+    int emptyWords()
+    {
+        return empty.length;
+    }
+
+    /**
+     * Write the empty cell bits into a snapshot (see Snapshot) - the only part of the grid
+     * which changes during a game.
+     */
+    void save( ByteBuffer out )
+    {
+        Snapshot.putLongs(out, empty);
+    }
+
+    /**
+     * Read the empty cell bits back from a snapshot.
+     */
+    void restore( ByteBuffer in )
+    {
+        Snapshot.getLongs(in, empty);
+    }
+
+    // cell column for an x position, clamped to the grid
+    private int col( int x )
+    {
+        return Math.min(cols - 1, Math.max(0, Math.floorDiv(x - originX, cellW)));
+    }
+
+    // cell row for a y position, clamped to the grid
+    private int row( int y )
+    {
+        return Math.min(rows - 1, Math.max(0, Math.floorDiv(y - originY, cellH)));
+    }
+}
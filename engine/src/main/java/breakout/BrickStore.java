@@ -0,0 +1,371 @@
+package breakout;
+
+// All the bricks in the game, stored as columns of numbers rather than as
+// one GameObj per brick. Brick number i has its position in x(i) and y(i),
+// its size in w(i) and h(i), its colour (a Palette index) in colour(i), its
+// type in type(i) and the number of hits it takes to break in hits(i).
+// Whether it is still there is one bit in the live bitset.
+// This uses much less memory than a GameObj per brick, and looping over
+// the bricks reads memory in order, which is much faster for big levels.
+//
+// The columns are kept outside the Java heap, one after another in a
+// ByteBuffer, laid out exactly as they are in a level file (see LevelFile.java):
+// all the x values (4 bytes each, little endian), then all the y values, w,
+// h, and then a byte each for colour, type and hits. So a level file can be
+// mapped into memory and used as it is - opening a level of a million bricks
+// does not read a million bricks. Only the things that change during a game
+// (the live bits, and how many times each brick has been hit) are on the heap.
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * <h2>BrickStore holds the bricks as parallel columns (struct of arrays).</h2>
+ * <p>Bricks never move, so only the live bits (and the damage of bricks which take more than
+ * one hit) change during a game. The number of live bricks is kept up to date, so checking
+ * whether the level is cleared is just one comparison.</p>
+ * <p>A brick with hits(i) of 0 can not be broken at all - the level is cleared when only
+ * those are left.</p>
+ */
+public class BrickStore
+{
+    public static final int NORMAL = 0;      // type of an ordinary brick
+    public static final int RECORD = 19;     // bytes for one brick in the columns
+
+    private final ByteBuffer data;   // The columns (read only once the bricks are added)
+    private final IntBuffer  x;      // Position - top left corner X
+    private final IntBuffer  y;      // Position - top left corner Y
+    private final IntBuffer  w;      // Width of brick
+    private final IntBuffer  h;      // Height of brick
+    private final ByteBuffer colour; // Colour of brick (index into Palette)
+    private final ByteBuffer type;   // Type of brick (NORMAL - a level can use others)
+    private final ByteBuffer hits;   // Hits to break the brick (0 - it never breaks)
+    private final long[] live;       // One bit per brick, set while the brick is visible
+    private byte[] damage;           // Times each brick has been hit (made when first needed)
+
+    private final int capacity;      // Most bricks the columns hold
+    private int size      = 0;       // Number of bricks added
+    private int liveCount = 0;       // Number of bricks still visible
+    private int solidCount = 0;      // Number of bricks which can't be broken
+    private int version   = 0;       // Goes up by one every time a brick is hit
+    private long liveHash = 0;       // Hash of which bricks have been hit (for checking replays)
+
+    /**
+     * Create an empty store with room for a fixed number of bricks.
+     * @param capacity   the maximum number of bricks
+     */
+    public BrickStore( int capacity )
+    {
+        this(ByteBuffer.allocateDirect(Math.max(1, capacity) * RECORD), capacity);
+        size = 0;
+        liveCount = 0;
+        Arrays.fill(live, 0);
+    }
+
+    /**
+     * Use columns which are already filled in (a level file mapped into memory). Every brick
+     * starts visible.
+     * @param columns   the columns - count bricks, laid out as described above
+     * @param count     the number of bricks
+     * @param solid     how many of them can't be broken (hits 0)
+     */
+    BrickStore( ByteBuffer columns, int count, int solid )
+    {
+        this(columns, count);
+        solidCount = solid;
+    }
+
+    // Wrap the columns for count bricks, all of them added and visible
+    private BrickStore( ByteBuffer columns, int count )
+    {
+        capacity = count;
+        data   = columns;
+        x      = ints(columns, 0, count);
+        y      = ints(columns, 1, count);
+        w      = ints(columns, 2, count);
+        h      = ints(columns, 3, count);
+        colour = columns.slice(16 * count, count);
+        type   = columns.slice(17 * count, count);
+        hits   = columns.slice(18 * count, count);
+        live   = new long[(count + 63) >>> 6];
+        Arrays.fill(live, -1L);                 // (bits past the end are never looked at)
+        size      = count;
+        liveCount = count;
+    }
+
+    // Column c of the four int columns
+    private static IntBuffer ints( ByteBuffer columns, int c, int count )
+    {
+        return columns.slice(c * 4 * count, 4 * count).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**
+     * Add a (visible) normal brick which breaks with one hit.
+     * @param c   colour of the brick (a Palette index)
+     * @return    the index of the new brick
+     */
+    public int add( int bx, int by, int bw, int bh, int c )
+    {
+        return add(bx, by, bw, bh, c, NORMAL, 1);
+    }
+
+    /**
+     * Add a (visible) brick.
+     * @param c      colour of the brick (a Palette index)
+     * @param t      type of the brick
+     * @param hp     hits it takes to break (1 to 255, 0 - never breaks)
+     * @return       the index of the new brick
+     */
+    public int add( int bx, int by, int bw, int bh, int c, int t, int hp )
+    {
+        int i = size++;
+        x.put(i, bx);  y.put(i, by);  w.put(i, bw);  h.put(i, bh);
+        colour.put(i, (byte) c);
+        type.put(i, (byte) t);
+        hits.put(i, (byte) hp);
+        live[i >>> 6] |= 1L << i;
+        liveCount++;
+        if (hp == 0) solidCount++;
+        return i;
+    }
+
+    public int x( int i )       { return x.get(i); }
+    public int y( int i )       { return y.get(i); }
+    public int w( int i )       { return w.get(i); }
+    public int h( int i )       { return h.get(i); }
+    public int colour( int i )  { return colour.get(i); }
+    public int type( int i )    { return type.get(i); }
+    public int hits( int i )    { return hits.get(i) & 0xFF; }
+
+    /**
+     * @return the number of bricks in the store (visible or not)
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return the number of bricks still visible - solidCount() means the level is cleared
+     */
+    public int liveCount()
+    {
+        return liveCount;
+    }
+
+    /**
+     * @return the number of bricks which can never be broken
+     */
+    public int solidCount()
+    {
+        return solidCount;
+    }
+
+    /**
+     * @return true if brick i is still visible
+     */
+    public boolean isLive( int i )
+    {
+        return (live[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Brick i has been hit by a ball. It breaks (is made invisible) if it has now been hit
+     * as many times as it takes.
+     * @return true if the brick broke
+     */
+    public boolean hit( int i )
+    {
+        int hp = hits(i);
+        if (hp == 0) return false;              // can't be broken
+        if (hp > 1)
+        {
+            if (damage == null) damage = new byte[capacity];
+            int hits = ++damage[i] & 0xFF;      // (unsigned - a brick can take up to 255 hits)
+            if (hits < hp)                      // not broken yet
+            {
+                version++;
+                liveHash ^= ((i + 1L) << 8 | hits) * 0xC2B2AE3D27D4EB4FL;
+                return false;
+            }
+        }
+        kill(i);
+        return true;
+    }
+
+    /**
+     * Make brick i invisible (it has been broken).
+     */
+    public void kill( int i )
+    {
+        long bit = 1L << i;
+        if ((live[i >>> 6] & bit) != 0)
+        {
+            live[i >>> 6] &= ~bit;
+            liveCount--;
+            version++;
+            liveHash ^= (i + 1L) * 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    /**
+     * @return a number which changes every time a brick is hit, so a copy of the live bits
+     *         can tell if it is out of date
+     */
+    public int version()
+    {
+        return version;
+    }
+
+    /**
+     * @return a hash of which bricks have been hit, kept up to date as bricks are hit
+     */
+    public long liveHash()
+    {
+        return liveHash;
+    }
+
+    /**
+     * Copy the live bits into an array, reusing the array if it is big enough.
+     * @param into   array to copy into (may be too small)
+     * @return       the array holding the copy
+     */
+    public long[] copyLive( long[] into )
+    {
+        if (into.length != live.length) into = new long[live.length];
+        System.arraycopy(live, 0, into, 0, live.length);
+        return into;
+    }
+
+    /**
+     * @return the number of longs holding the live bits
+     */
+    int liveWords()
+    {
+        return live.length;
+    }
+
+    /**
+     * @return the number of bytes of damage a snapshot holds, if there is any
+     */
+    int damageBytes()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return true if any brick which takes more than one hit has been hit
+     */
+    boolean isDamaged()
+    {
+        return damage != null;
+    }
+
+    /**
+     * Write what has changed since the start of the game (the live bits and the damage) into a
+     * snapshot (see Snapshot). The columns never change, so they are not written.
+     */
+    void save( ByteBuffer out )
+    {
+        out.putInt(liveCount).putLong(liveHash);
+        Snapshot.putLongs(out, live);
+        if (damage == null)
+        {
+            out.put((byte) 0);
+        }
+        else
+        {
+            out.put((byte) 1).put(damage);
+        }
+    }
+
+    /**
+     * Read the live bits and the damage back from a snapshot. The version goes up (rather than
+     * going back to what it was) so copies of the live bits know they are out of date.
+     */
+    void restore( ByteBuffer in )
+    {
+        liveCount = in.getInt();
+        liveHash  = in.getLong();
+        Snapshot.getLongs(in, live);
+        if (in.get() != 0)
+        {
+            if (damage == null) damage = new byte[capacity];
+            in.get(damage);
+        }
+        else if (damage != null)
+        {
+            Arrays.fill(damage, (byte) 0);
+        }
+        version++;
+    }
+
+    /**
+     * Find the next visible brick, so the visible bricks can be looped over quickly:
+     * <code>for (int i = store.nextLive(0); i >= 0; i = store.nextLive(i + 1))</code>
+     * @param from   first brick index to look at
+     * @return       index of the next visible brick, or -1 if there are no more
+     */
+    public int nextLive( int from )
+    {
+        return nextSet(live, from, size);
+    }
+
+    /**
+     * Find the next set bit in a bitset (used for copies of the live bits as well).
+     * @param bits   the bitset
+     * @param from   first bit to look at
+     * @param size   number of bits in use
+     * @return       index of the next set bit, or -1 if there are no more
+     */
+    public static int nextSet( long[] bits, int from, int size )
+    {
+        if (from >= size) return -1;
+        int  word = from >>> 6;
+        long b    = bits[word] & (-1L << from);
+        while (true)
+        {
+            if (b != 0)
+            {
+                int i = (word << 6) + Long.numberOfTrailingZeros(b);
+                return i < size ? i : -1;
+            }
+            if (++word == bits.length) return -1;
+            b = bits[word];
+        }
+    }
+
+    /**
+     * Detect collision between brick i and a game object (the same test as GameObj.hitBy).
+     */
+    public boolean hitBy( int i, GameObj obj )
+    {
+        int bx = x(i), by = y(i);
+        boolean separate =
+            bx >= obj.topX + obj.width      ||
+            bx + w(i) <= obj.topX           ||
+            by >= obj.topY + obj.height     ||
+            by + h(i) <= obj.topY;
+        return !separate;
+    }
+
+    /**
+     * Write the columns of the bricks added so far, in the level file layout (see LevelFile.java).
+     * @param out   where to write them
+     */
+    void writeTo( WritableByteChannel out ) throws IOException
+    {
+        for (int c = 0; c < 4; c++) writeFully(out, data.slice(c * 4 * capacity, 4 * size));
+        for (int c = 0; c < 3; c++) writeFully(out, data.slice((16 + c) * capacity, size));
+    }
+
+    // Write all of a buffer
+    static void writeFully( WritableByteChannel out, ByteBuffer b ) throws IOException
+    {
+        while (b.hasRemaining()) out.write(b);
+    }
+}
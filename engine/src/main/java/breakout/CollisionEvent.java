@@ -0,0 +1,65 @@
+package breakout;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// A ball bouncing off something (see TickEvent.java for JFR events in general).
+
+/**
+ * <h2>CollisionEvent is a ball touching a wall, the bottom, the bat or a brick.</h2>
+ * <p>It is recorded by Model.moveBall, which may run on several threads at once.</p>
+ */
+@Name("breakout.Collision")
+@Label("Collision")
+@Category("Breakout")
+@Description("A ball bouncing off a wall, the bottom, the bat or a brick")
+@Enabled(false)
+@StackTrace(false)
+public class CollisionEvent extends jdk.jfr.Event
+{
+    public static final String WALL   = "wall";
+    public static final String BOTTOM = "bottom";
+    public static final String BAT    = "bat";
+    public static final String BRICK  = "brick";
+
+    @Label("Tick")
+    public long tick;
+
+    @Label("Kind")
+    public String kind;
+
+    @Label("Ball")
+    public int ball;
+
+    @Label("Brick")
+    @Description("The brick hit (-1 if not a brick)")
+    public int brick;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    /**
+     * Record a collision (if a recording wants collisions).
+     */
+    static void emit( long tick, String kind, int ball, int brick, int x, int y )
+    {
+        CollisionEvent event = new CollisionEvent();
+        if (event.shouldCommit())
+        {
+            event.tick  = tick;
+            event.kind  = kind;
+            event.ball  = ball;
+            event.brick = brick;
+            event.x     = x;
+            event.y     = y;
+            event.commit();
+        }
+    }
+}
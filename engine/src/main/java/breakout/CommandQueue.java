@@ -0,0 +1,130 @@
+package breakout;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// The commands sent to the Model (move the bat, change speed, stop the game,
+// add balls) by the Controller and anything else that plays the game. A
+// command does not run when it is sent - it is put in this queue, and the
+// game thread runs everything in the queue at the start of the next update.
+// So the thread sending a command never waits for an update (or for the
+// model to be unlocked), and the model only ever changes on the game thread.
+//
+// The queue is a fixed size ring of Command objects, which are made once
+// and used again and again, so sending a command makes no garbage. It is
+// small (GameConfig.COMMANDS, 64 slots normally) - a game is only sent a few
+// commands an update, and a server may run thousands of games. Any number
+// of threads may send commands (offer), only the game thread takes them
+// (peek and remove). It works the same way as the message ring in Debug:
+// slot i is free for a sender when seq[i] is the number of the command that
+// goes there, and ready for the game thread when it is one more than that.
+
+/**
+ * <h2>CommandQueue passes commands to the game thread without locks.</h2>
+ * <p>The command types are the InputLog op codes (MOVE_BAT, FAST, STATE, ADD_BALLS, RESTORE
+ * and REWIND), so the Model can record a command in the input log just as it runs it. If the
+ * queue is full (the game thread has stopped taking commands) offer throws the command away,
+ * counts it and returns false.</p>
+ */
+public class CommandQueue
+{
+    /**
+     * One command - a slot in the queue. It belongs to the game thread between peek and remove.
+     */
+    public static class Command
+    {
+        public int  op;                 // What to do (an InputLog op code)
+        public int  arg;                // How much / which way (as in the input log)
+        public long sent;               // When it was sent (System.nanoTime)
+    }
+
+    private final int SIZE;                               // slots (a power of 2)
+    private final Command[] slots;
+    private final AtomicLongArray seq;
+    private final AtomicLong tail     = new AtomicLong();  // number of the next command sent
+    private final AtomicLong dropped  = new AtomicLong();  // commands thrown away
+    private long head = 0;                                 // next command to run (game thread only)
+
+    /**
+     * Make a queue.
+     * @param size   the most commands it holds (rounded up to a power of 2)
+     */
+    public CommandQueue( int size )
+    {
+        SIZE  = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        slots = new Command[SIZE];
+        seq   = new AtomicLongArray(SIZE);
+        for (int i = 0; i < SIZE; i++)
+        {
+            slots[i] = new Command();
+            seq.set(i, i);
+        }
+    }
+
+    /**
+     * Send a command. Never waits. Any thread.
+     * @param op     what to do (InputLog.MOVE_BAT etc)
+     * @param arg    the argument, as it is written in the input log
+     * @param now    when it is sent (System.nanoTime)
+     * @return false if the queue was full and the command was thrown away
+     */
+    public boolean offer( int op, int arg, long now )
+    {
+        long t;
+        while (true)
+        {
+            t = tail.get();
+            long s = seq.get((int) t & (SIZE - 1));
+            if (s == t)
+            {
+                if (tail.compareAndSet(t, t + 1)) break;      // the slot is ours
+            }
+            else if (s < t)
+            {
+                dropped.incrementAndGet();                    // full - the game is not taking them
+                return false;
+            }
+            // else another thread took the slot first - try the next one
+        }
+        int i = (int) t & (SIZE - 1);
+        Command c = slots[i];
+        c.op = op;  c.arg = arg;  c.sent = now;
+        seq.set(i, t + 1);                                    // ready for the game thread
+        return true;
+    }
+
+    /**
+     * The oldest command, which stays in the queue until remove is called. Game thread only.
+     * @return the command, or null if the queue is empty
+     */
+    public Command peek()
+    {
+        int i = (int) head & (SIZE - 1);
+        return seq.get(i) == head + 1 ? slots[i] : null;
+    }
+
+    /**
+     * Remove the command that peek returned, so its slot can be used again. Game thread only.
+     */
+    public void remove()
+    {
+        seq.set((int) head & (SIZE - 1), head + SIZE);        // free for a sender again
+        head++;
+    }
+
+    /**
+     * @return the most commands the queue holds
+     */
+    public int size()
+    {
+        return SIZE;
+    }
+
+    /**
+     * @return the number of commands thrown away because the queue was full
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+}
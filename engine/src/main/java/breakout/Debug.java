@@ -0,0 +1,358 @@
+package breakout;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Print information about the running program
+ * <p>Messages are not printed by the thread that logs them. They are put in a
+ * fixed size ring of slots (the format and its arguments, nothing is formatted
+ * yet) and a background 'writer' thread formats and prints them. So logging
+ * never waits for System.out, and the trace methods (which take their numbers
+ * as plain longs, not Objects) create no garbage at all. If the ring is full the
+ * message is thrown away and counted (see getDropped) - the game does not wait.</p>
+ * <p>Only %d, %x, %s, %% and %n are understood in a format, without widths.
+ * An Object argument is turned into text by the writer thread, a little later,
+ * so pass Strings or things that do not change (not the Model).</p>
+ * @author Mike Smith University of Brighton
+ * @version 2.0
+ */
+
+public class Debug
+{
+  public static final int OFF   = 0;     // print nothing
+  public static final int ERROR = 1;     // print errors only
+  public static final int INFO  = 2;     // and information messages
+  public static final int TRACE = 3;     // and everything else
+
+  private static volatile int level = TRACE;
+
+  // The ring of messages waiting to be printed. Slot i is free for a logging
+  // thread when seq[i] is the number of the message that goes there, and ready
+  // for the writer when it is one more than that (a bounded queue for many
+  // producers, with no locks)
+  private static final int SIZE = 1024;                   // slots (a power of 2)
+  private static final int ARGS = 3;                      // most arguments in a message
+  private static final AtomicLongArray seq = new AtomicLongArray(SIZE);
+  private static final AtomicLong tail     = new AtomicLong();   // next message number
+  private static final AtomicLong dropped  = new AtomicLong();   // messages thrown away
+  private static final String[] fmts  = new String[SIZE];
+  private static final int[]    kinds = new int[SIZE];           // bit a set: argument a is an Object
+  private static final int[]    counts = new int[SIZE];          // number of arguments
+  private static final long[]   nums  = new long[SIZE * ARGS];
+  private static final Object[] objs  = new Object[SIZE * ARGS];
+  static
+  {
+    for (int i = 0; i < SIZE; i++) seq.set(i, i);
+  }
+
+  /**
+   * Set true/false to print debugging information
+   * @param state Debugging true false
+   * @return The old state
+   */
+  public static synchronized boolean set( boolean state )
+  {
+    boolean oldState = level >= TRACE;
+    level = state ? TRACE : ERROR;
+    return oldState;
+  }
+
+  /**
+   * Set how much is printed
+   * @param newLevel OFF, ERROR, INFO or TRACE
+   * @return The old level
+   */
+  public static synchronized int setLevel( int newLevel )
+  {
+    int oldLevel = level;
+    level = newLevel;
+    return oldLevel;
+  }
+
+  /**
+   * Set how much is printed from a name (off, error, info or trace) - eg. a system property
+   * @param name The level name (null leaves the level as it is)
+   */
+  public static void setLevel( String name )
+  {
+    if ( name == null ) return;
+    switch ( name.toLowerCase() )
+    {
+      case "off"   : setLevel( OFF );   break;
+      case "error" : setLevel( ERROR ); break;
+      case "info"  : setLevel( INFO );  break;
+      case "trace" : setLevel( TRACE ); break;
+      default      : error( "Debug::setLevel: unknown level %s", name );
+    }
+  }
+
+  /**
+   * Is tracing on? Use this to avoid working out an argument that is only needed for a trace
+   * @return true if trace messages are printed
+   */
+  public static boolean tracing()
+  {
+    return level >= TRACE;
+  }
+
+  /**
+   * Display text for debugging purposes
+   * @param msg  The text (not a format)
+   */
+  public static void trace( String msg )
+  {
+    if ( level >= TRACE ) log( "%s", 1, 1, 0, 0, 0, msg, null, null );
+  }
+
+  /**
+   * Display text for debugging purposes
+   * @param fmt  The format (%d, %x, %s)
+   * @param a    The number for the format
+   */
+  public static void trace( String fmt, long a )
+  {
+    if ( level >= TRACE ) log( fmt, 0, 1, a, 0, 0, null, null, null );
+  }
+
+  /**
+   * Display text for debugging purposes
+   * @param fmt  The format (%d, %x, %s)
+   * @param a    The first number for the format
+   * @param b    The second number
+   */
+  public static void trace( String fmt, long a, long b )
+  {
+    if ( level >= TRACE ) log( fmt, 0, 2, a, b, 0, null, null, null );
+  }
+
+  /**
+   * Display text for debugging purposes
+   * @param fmt  The format (%d, %x, %s)
+   * @param a    The first number for the format
+   * @param b    The second number
+   * @param c    The third number
+   */
+  public static void trace( String fmt, long a, long b, long c )
+  {
+    if ( level >= TRACE ) log( fmt, 0, 3, a, b, c, null, null, null );
+  }
+
+  /**
+   * Display text for debugging purposes
+   * @param fmt  The format (%d, %x, %s)
+   * @param a    The Object for the format (turned into text later, by the writer thread)
+   */
+  public static void trace( String fmt, Object a )
+  {
+    if ( level >= TRACE ) log( fmt, 1, 1, 0, 0, 0, a, null, null );
+  }
+
+  /**
+   * Display text for debugging purposes
+   * @param fmt  The format (%d, %x, %s)
+   * @param a    The first Object for the format
+   * @param b    The second Object
+   */
+  public static void trace( String fmt, Object a, Object b )
+  {
+    if ( level >= TRACE ) log( fmt, 3, 2, 0, 0, 0, a, b, null );
+  }
+
+  /**
+   * Display an information message
+   * @param msg  The text (not a format)
+   */
+  public static void info( String msg )
+  {
+    if ( level >= INFO ) log( "%s", 1, 1, 0, 0, 0, msg, null, null );
+  }
+
+  /**
+   * Display an information message
+   * @param fmt  The format (%d, %x, %s)
+   * @param a    The first number for the format
+   * @param b    The second number
+   */
+  public static void info( String fmt, long a, long b )
+  {
+    if ( level >= INFO ) log( fmt, 0, 2, a, b, 0, null, null, null );
+  }
+
+  /**
+   * Display an information message
+   * @param fmt  The format (%d, %x, %s)
+   * @param a    The Object for the format
+   */
+  public static void info( String fmt, Object a )
+  {
+    if ( level >= INFO ) log( fmt, 1, 1, 0, 0, 0, a, null, null );
+  }
+
+  /**
+   * Display a fatal message if the assertion fails
+   * @param ok true if all is ok
+   * @param fmt The same as printf etc
+   * @param params The parameters to fmt
+   */
+  public static void assertTrue( boolean ok, String fmt, Object... params )
+  {
+    if ( ! ok )
+    {
+      error( "Assert - " + fmt, params );
+    }
+  }
+
+  /**
+   * Display a fatal message. Errors are rare, so this formats straight away (with printf) and
+   * is never thrown away - if the ring is full it is printed by the calling thread.
+   * @param fmt The same as printf etc
+   * @param params The parameters to fmt
+   */
+  public static void error(String fmt, Object... params )
+  {
+    if ( level < ERROR ) return;
+    String msg = "ERROR: " + String.format( fmt, params );
+    if ( ! log( "%s", 1, 1, 0, 0, 0, msg, null, null ) )
+    {
+      dropped.decrementAndGet();              // (it was not lost after all)
+      synchronized( Debug.class )
+      {
+        Writer.out.println( msg );
+      }
+    }
+  }
+
+  /**
+   * @return the number of messages thrown away because the ring was full
+   */
+  public static long getDropped()
+  {
+    return dropped.get();
+  }
+
+  /**
+   * Wait (up to a second) until every message logged so far has been printed
+   */
+  public static void flush()
+  {
+    long last = tail.get();
+    if ( last == 0 ) return;                  // nothing ever logged - no writer
+    long end = System.nanoTime() + 1_000_000_000L;
+    while ( Writer.printed < last && System.nanoTime() < end )
+    {
+      LockSupport.unpark( Writer.thread );
+      LockSupport.parkNanos( 100_000 );
+    }
+  }
+
+  // Put a message in the ring. Returns false (and counts it) if the ring is full
+  private static boolean log( String fmt, int kind, int count, long a, long b, long c,
+                              Object oa, Object ob, Object oc )
+  {
+    long t;
+    while ( true )
+    {
+      t = tail.get();
+      long s = seq.get( (int) t & (SIZE - 1) );
+      if ( s == t )
+      {
+        if ( tail.compareAndSet( t, t + 1 ) ) break;      // the slot is ours
+      }
+      else if ( s < t )
+      {
+        dropped.incrementAndGet();                        // full - the writer is behind
+        return false;
+      }
+      // else another thread took the slot first - try the next one
+    }
+    int i = (int) t & (SIZE - 1), n = i * ARGS;
+    fmts[i] = fmt;  kinds[i] = kind;  counts[i] = count;
+    nums[n] = a;    nums[n+1] = b;    nums[n+2] = c;
+    objs[n] = oa;   objs[n+1] = ob;   objs[n+2] = oc;
+    seq.set( i, t + 1 );                                  // ready for the writer
+    Writer.wake();
+    return true;
+  }
+
+  // The background thread that prints the messages. It is only started (when
+  // this class is first used) once something has been logged
+  private static class Writer
+  {
+    static final PrintStream out = System.out;
+    static final StringBuilder line = new StringBuilder( 256 );
+    static volatile long printed = 0;                     // messages printed so far
+    static volatile boolean sleeping = false;
+    static final Thread thread = new Thread( Writer::run, "breakout-log" );
+    static
+    {
+      thread.setDaemon( true );
+      thread.start();
+      // print whatever is left when the program ends
+      Runtime.getRuntime().addShutdownHook( new Thread( Debug::flush ) );
+    }
+
+    static void wake()
+    {
+      if ( sleeping ) LockSupport.unpark( thread );
+    }
+
+    static void run()
+    {
+      long head = 0, droppedSeen = 0;
+      while ( true )
+      {
+        int i = (int) head & (SIZE - 1);
+        if ( seq.get( i ) != head + 1 )                   // nothing waiting
+        {
+          out.flush();
+          long d = dropped.get();
+          if ( d != droppedSeen )
+          {
+            out.println( "Debug: " + (d - droppedSeen) + " messages dropped" );
+            droppedSeen = d;
+          }
+          sleeping = true;
+          if ( seq.get( i ) != head + 1 ) LockSupport.park();
+          sleeping = false;
+          continue;
+        }
+        format( i );
+        int n = i * ARGS;
+        objs[n] = objs[n+1] = objs[n+2] = null;
+        fmts[i] = null;
+        seq.set( i, head + SIZE );                        // free for a logging thread again
+        head++;
+        out.append( line ).append( '\n' );
+        printed = head;
+      }
+    }
+
+    // Format message i into 'line'
+    static void format( int i )
+    {
+      line.setLength( 0 );
+      String fmt = fmts[i];
+      int arg = 0, n = i * ARGS;
+      for ( int p = 0; p < fmt.length(); p++ )
+      {
+        char ch = fmt.charAt( p );
+        if ( ch != '%' || p + 1 == fmt.length() )
+        {
+          line.append( ch );
+          continue;
+        }
+        char conv = fmt.charAt( ++p );
+        if ( conv == '%' )      { line.append( '%' ); continue; }
+        if ( conv == 'n' )      { line.append( '\n' ); continue; }
+        if ( arg >= counts[i] ) { line.append( '%' ).append( conv ); continue; }
+        if ( (kinds[i] & (1 << arg)) != 0 ) line.append( objs[n + arg] );
+        else if ( conv == 'x' ) line.append( Long.toHexString( nums[n + arg] ) );
+        else                    line.append( nums[n + arg] );
+        arg++;
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package breakout;
+
+// Check that the game is deterministic - that the same inputs always give
+// exactly the same game, bit for bit. Replays (and later, games played in
+// lockstep on several machines, where only the inputs are sent) depend on it.
+// Usage:  java -cp engine/target/classes breakout.Determinism [ticks] [hash]
+//
+// One scripted game (a bot on the bat, the speed going up and down, and a
+// ball storm, so the balls are moved on several threads and bounce off the
+// bat at all sorts of angles) is played several times - one after the other,
+// and at the same time on different threads. The state hash after every
+// update is folded into a chain hash, and every run must end with the same
+// chain. The chain is printed, so it can be compared with a run on another
+// machine or JVM - give it as the second argument and it is checked too.
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <h1>Determinism plays the same game several ways and checks the state hashes agree.</h1>
+ * <p>The exit code is 0 if every run gave the same chain hash (and it is the expected one, if
+ * one was given), 1 if not.</p>
+ */
+public class Determinism
+{
+    private static final int RUNS = 4;          // games played at the same time
+
+    /**
+     * Play the scripted game and check it comes out the same every time.
+     * @param args   optional number of updates (default 20,000) and expected chain hash (hex)
+     */
+    public static void main( String args[] ) throws Exception
+    {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Debug.set(false);
+
+        long first = play(ticks);
+        boolean same = first == play(ticks);    // (warmed up - the JIT has compiled it now)
+        ExecutorService pool = Executors.newFixedThreadPool(RUNS);
+        Future<?>[] runs = new Future<?>[RUNS];
+        for (int r = 0; r < RUNS; r++) runs[r] = pool.submit(() -> play(ticks));
+        for (Future<?> f : runs) same &= (Long) f.get() == first;
+        pool.shutdown();
+
+        System.out.printf("Determinism: %d updates, chain hash %016x - %s%n", ticks, first,
+            same ? "every run the same" : "RUNS DIFFER");
+        if (args.length > 1 && Long.parseUnsignedLong(args[1], 16) != first)
+        {
+            System.out.printf("Determinism: expected %s - the game is different here%n", args[1]);
+            same = false;
+        }
+        System.exit(same ? 0 : 1);
+    }
+
+    /**
+     * Play the scripted game.
+     * @param ticks   number of updates
+     * @return        the chain of the state hashes after every update
+     */
+    public static long play( int ticks )
+    {
+        Model model = new Model(600, 800);
+        model.initialiseGame();
+        BatPolicy bot = BatPolicy.tracking(42, 0.1);
+        long chain = 0;
+        for (int t = 0; t < ticks; t++)
+        {
+            int move = bot.move(model);
+            if (move != 0) model.moveBat(move);
+            if (t % 1000 == 500) model.setFast(t % 2000 == 500);
+            if (t == 2000) model.addBalls(300);             // (more than PARALLEL_MIN)
+            model.updateGame();
+            chain = InputLog.chain(chain, model.stateHash());
+        }
+        return chain;
+    }
+}
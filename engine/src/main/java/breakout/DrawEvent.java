@@ -0,0 +1,35 @@
+package breakout;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// A frame being drawn (see TickEvent.java for JFR events in general).
+
+/**
+ * <h2>DrawEvent is one call of View.drawPicture, on the JavaFX thread.</h2>
+ */
+@Name("breakout.Draw")
+@Label("Frame Drawn")
+@Category("Breakout")
+@Description("The View drawing one frame")
+@Enabled(false)
+@StackTrace(false)
+public class DrawEvent extends jdk.jfr.Event
+{
+    @Label("Tick")
+    @Description("The update the frame shows")
+    public long tick;
+
+    @Label("Balls")
+    public int balls;
+
+    @Label("Full Repaint")
+    public boolean fullRepaint;
+
+    @Label("Damaged Rectangles")
+    public int damaged;
+}
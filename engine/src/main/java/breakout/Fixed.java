@@ -0,0 +1,76 @@
+package breakout;
+
+// Fixed point numbers for the physics - 16.16: a number n stands for n / 65536,
+// so the top bits are the whole part and the bottom 16 bits the fraction.
+// Positions in the physics are longs (a level can be wider than 32767 pixels),
+// velocities and times are ints. Only integer arithmetic is used, which gives
+// exactly the same answers on every machine and every JVM - so games played
+// with the same inputs stay the same game, bit for bit, wherever they run.
+
+/**
+ * <h2>Fixed holds the 16.16 fixed point helpers used by the ball physics.</h2>
+ * <p>Divisions round down (towards minus infinity, not towards 0), so a time of impact is
+ * never later than the real one, and a small negative time stays negative.</p>
+ */
+public class Fixed
+{
+    public static final int SHIFT = 16;
+    public static final int ONE   = 1 << SHIFT;         // 1.0
+    public static final int FRAC  = ONE - 1;            // mask of the fraction bits
+
+    /**
+     * @return the whole number n as a fixed point position
+     */
+    public static long of( int n )
+    {
+        return (long) n << SHIFT;
+    }
+
+    /**
+     * @return a fixed point position made of a whole number and a fraction (0 to FRAC)
+     */
+    public static long of( int n, int frac )
+    {
+        return ((long) n << SHIFT) + frac;
+    }
+
+    /**
+     * @return the whole part of a position, rounded down
+     */
+    public static int floor( long f )
+    {
+        return (int) (f >> SHIFT);
+    }
+
+    /**
+     * @return the whole part of a position, rounded up
+     */
+    public static int ceil( long f )
+    {
+        return (int) ((f + FRAC) >> SHIFT);
+    }
+
+    /**
+     * @return the fraction of a position (0 to FRAC)
+     */
+    public static int frac( long f )
+    {
+        return (int) (f & FRAC);
+    }
+
+    /**
+     * @return a * b (rounded down)
+     */
+    public static long mul( long a, int b )
+    {
+        return (a * b) >> SHIFT;
+    }
+
+    /**
+     * @return a / b (rounded down) - b must not be 0
+     */
+    public static long div( long a, int b )
+    {
+        return Math.floorDiv(a << SHIFT, (long) b);
+    }
+}
@@ -0,0 +1,165 @@
+package breakout;
+
+// A picture of the game at the end of one update - where the balls and bat
+// are, which bricks are still there and the score. The Model fills in a
+// Frame on the animation thread and hands it over to the View through a
+// FrameBuffer, so the View can draw it without locking the Model.
+
+/**
+ * <h2>Frame is a snapshot of everything the View needs to draw one picture.</h2>
+ * <p>Once a Frame has been published (see FrameBuffer) it is not changed again until the
+ * View has let go of it, so the View can read it with no locking. Frames are reused rather
+ * than created for every update. Brick positions never change during a level, so a Frame
+ * only copies the live bits of the bricks, and only when a brick has been hit.</p>
+ */
+public class Frame
+{
+    private long tick;                          // Number of the update this frame shows
+    private long tickTime;                      // Planned time (System.nanoTime) of that update
+    private long publishTime;                   // When the frame was published (System.nanoTime)
+    private long tickNanos;                     // Time between updates (nanoseconds)
+    private int  prevBatX,  prevBatY;           // Bat position one update earlier
+    private int  balls;                         // Number of balls
+    private int[] ballX = new int[1], ballY = new int[1];           // The balls
+    private int[] prevBallX = new int[1], prevBallY = new int[1];   // ... one update earlier
+    private int  ballW, ballH, ballColour;
+    private int  batX, batY, batW, batH;        // The bat
+    private int  batColour;
+    private int  score;                         // The score
+    private int  worldW, worldH;                // Size of the level (can be bigger than the window)
+
+    private BrickStore bricks;                  // Brick positions, sizes and colours
+    private BrickGrid  grid;                    // Finds the bricks in a rectangle (see queryAll)
+    private long[] live = new long[0];          // Copy of the brick live bits
+    private int    liveVersion = -1;            // BrickStore version the live bits came from
+
+    /**
+     * Copy the state of the model into this frame. Only called by the thread running the game.
+     * @param model   the model to copy
+     * @param tick    number of the update
+     */
+    void copyFrom( Model model, long tick )
+    {
+        this.tick = tick;
+        tickTime  = model.getTickTime();
+        publishTime = System.nanoTime();
+        tickNanos = 1_000_000_000L / model.tickRate;
+        prevBatX  = model.prevBatX;   prevBatY  = model.prevBatY;
+        BallStore store = model.balls;
+        balls = store.size();
+        if (ballX.length < balls)
+        {
+            ballX = new int[store.x.length];      ballY = new int[store.x.length];
+            prevBallX = new int[store.x.length];  prevBallY = new int[store.x.length];
+        }
+        System.arraycopy(store.x, 0, ballX, 0, balls);
+        System.arraycopy(store.y, 0, ballY, 0, balls);
+        System.arraycopy(store.prevX, 0, prevBallX, 0, balls);
+        System.arraycopy(store.prevY, 0, prevBallY, 0, balls);
+        ballW = store.width;  ballH = store.height;  ballColour = store.colour;
+        GameObj bat = model.bat;
+        batX = bat.topX;  batY = bat.topY;  batW = bat.width;  batH = bat.height;
+        batColour = bat.colour;
+        score = model.score;
+        worldW = model.getWidth();  worldH = model.getHeight();
+
+        // only copy the brick bits if a brick has changed since this frame was last used
+        if (bricks != model.bricks || liveVersion != model.bricks.version())
+        {
+            bricks = model.bricks;
+            grid   = model.getBrickGrid();
+            live   = bricks.copyLive(live);
+            liveVersion = bricks.version();
+        }
+    }
+
+    public long getTick()       { return tick; }
+    public long getTickTime()   { return tickTime; }
+    public long getPublishTime(){ return publishTime; }
+    public long getTickNanos()  { return tickNanos; }
+    public int  getScore()      { return score; }
+    public int  getWorldWidth() { return worldW; }
+    public int  getWorldHeight(){ return worldH; }
+
+    public int  getBallCount()  { return balls; }
+    public int  getBallX(int i) { return ballX[i]; }
+    public int  getBallY(int i) { return ballY[i]; }
+    public int  getPrevBallX(int i) { return prevBallX[i]; }
+    public int  getPrevBallY(int i) { return prevBallY[i]; }
+    public int  getBallWidth()  { return ballW; }
+    public int  getBallHeight() { return ballH; }
+    public int  getBallColour() { return ballColour; }
+
+    public int  getBatX()       { return batX; }
+    public int  getBatY()       { return batY; }
+    public int  getBatWidth()   { return batW; }
+    public int  getBatHeight()  { return batH; }
+    public int  getBatColour()  { return batColour; }
+
+    public int  getPrevBatX()   { return prevBatX; }
+    public int  getPrevBatY()   { return prevBatY; }
+
+    /**
+     * How far the screen should be between the previous update and this one at a given time.
+     * The picture is drawn one update behind the game: at the planned time of this update it
+     * shows the previous positions, and one update later it shows this frame's positions.
+     * @param now   the time (System.nanoTime) the picture is for
+     * @return      0 (previous positions) to 1 (this frame's positions)
+     */
+    public double alpha( long now )
+    {
+        double a = (double) (now - tickTime) / tickNanos;
+        return a < 0 ? 0 : a > 1 ? 1 : a;
+    }
+
+    /**
+     * @return the bricks (only use the positions, sizes and colours - the live bits in the
+     *         BrickStore belong to the game thread, use isLive/nextLive instead)
+     */
+    public BrickStore getBricks()
+    {
+        return bricks;
+    }
+
+    /**
+     * @return the grid of the bricks - only use queryAll, which can be called while the game
+     *         runs, and isLive to see which of the bricks it finds were visible in this frame
+     */
+    public BrickGrid getGrid()
+    {
+        return grid;
+    }
+
+    /**
+     * @return the BrickStore version the live bits were copied from - it changes whenever a
+     *         brick is hit, so if it is the same as in an earlier frame no brick has changed
+     */
+    public int getLiveVersion()
+    {
+        return liveVersion;
+    }
+
+    /**
+     * @return true if brick i was visible in this frame
+     */
+    public boolean isLive( int i )
+    {
+        return (live[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * @return 64 of the live bits of this frame - bricks w*64 to w*64+63 (bit 0 is brick w*64)
+     */
+    public long getLiveWord( int w )
+    {
+        return live[w];
+    }
+
+    /**
+     * @return the next brick visible in this frame, starting at brick from, or -1 if none
+     */
+    public int nextLive( int from )
+    {
+        return bricks == null ? -1 : BrickStore.nextSet(live, from, bricks.size());
+    }
+}
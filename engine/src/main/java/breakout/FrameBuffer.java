@@ -0,0 +1,80 @@
+package breakout;
+
+// Hands Frames over from the game thread to the View without any locks.
+// There are three frames: the game thread writes into the 'back' frame, the
+// View reads from the 'front' frame, and the third one is the latest
+// finished frame waiting to be picked up. Swapping is done with one atomic
+// exchange, so neither side ever waits for the other.
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h2>FrameBuffer is a triple buffer of Frames.</h2>
+ * <p>publish() must only be called by the game thread, and latest() only by the drawing
+ * thread. latest() always returns the newest finished frame, and the frame it returns is
+ * not touched by the game thread until the next call to latest().</p>
+ */
+public class FrameBuffer
+{
+    private static final int FRESH = 4;         // flag - the waiting frame has not been read
+
+    private final Frame[] frames = { new Frame(), new Frame(), new Frame() };
+    private final AtomicInteger waiting = new AtomicInteger(1);  // index of the waiting frame (+FRESH)
+    private int back  = 0;                      // frame the game thread writes (game thread only)
+    private int front = 2;                      // frame the View reads (drawing thread only)
+
+    private volatile long published = 0;        // frames published (written by game thread only)
+    private volatile long skipped   = 0;        // frames replaced before anyone read them
+
+    /**
+     * Copy the model into the back frame and make it the latest frame. Game thread only.
+     * @param model   the model to copy
+     * @param tick    number of the update
+     */
+    public void publish( Model model, long tick )
+    {
+        frames[back].copyFrom(model, tick);
+        int old = waiting.getAndSet(back | FRESH);
+        if ((old & FRESH) != 0) skipped++;      // the last frame was never drawn
+        published++;
+        back = old & ~FRESH;
+    }
+
+    /**
+     * @return true if a frame has been published since the last call to latest()
+     */
+    public boolean hasNew()
+    {
+        return (waiting.get() & FRESH) != 0;
+    }
+
+    /**
+     * @return the number of frames published
+     */
+    public long getPublished()
+    {
+        return published;
+    }
+
+    /**
+     * @return the number of frames which were replaced by a newer one before they were drawn
+     *         (coalesced frames)
+     */
+    public long getSkipped()
+    {
+        return skipped;
+    }
+
+    /**
+     * Get the newest published frame. Drawing thread only.
+     * @return the frame to draw (the same one as last time if nothing new was published)
+     */
+    public Frame latest()
+    {
+        if ((waiting.get() & FRESH) != 0)
+        {
+            front = waiting.getAndSet(front) & ~FRESH;
+        }
+        return frames[front];
+    }
+}
@@ -0,0 +1,315 @@
+package breakout;
+
+// The picture of the game sent to a remote client (see NetServer and
+// NetClient), squeezed down to what changed since the last one that was sent.
+//
+// Both ends keep a FrameDelta: the server's is the game as the client last
+// saw it, and write() sends the difference between that and a new Frame; the
+// client's is its copy of the game, and read() applies the difference. So a
+// frame is only ever a delta from the frame before it, and frames the server
+// never sent (because the client was slow to take them) cost nothing - the
+// next delta covers them too.
+//
+// A frame, all little endian, numbers as varints (7 bits a byte) and the
+// differences zigzag encoded (small negative numbers stay small):
+//   flags              one byte - FULL, COUNT, BAT, SCORE, BRICKS, ACK, FINISHED
+//   tick               the update number (FULL), or how many updates on
+//   FULL:              level width, height, bricks, ball width, height, bat
+//                      width, height and the tick rate (the first frame only)
+//   ACK:               the number of the latest command from the client that
+//                      this frame includes (for measuring latency)
+//   COUNT:             the number of balls
+//   BAT:               how far the bat moved in x and y
+//   SCORE:             how much the score changed
+//   balls              how far each ball moved in x and y (from 0 for a new ball)
+//   BRICKS:            the number of bricks which broke (or came back), then
+//                      each one's number, as the gap from the one before
+// The bricks start all there. A ball moving a few pixels costs two bytes, so
+// a frame of one ball, with the bat moving, is about 8 bytes.
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <h2>FrameDelta is one end of a delta compressed stream of Frames.</h2>
+ * <p>The public fields are the game as the other end last saw it (the server) or as it was
+ * received (the client). Ball and bat positions are whole pixels, as in a Frame. maxSize gives
+ * the most bytes write can need for a frame.</p>
+ */
+public class FrameDelta
+{
+    public static final int FULL     = 1;       // the first frame - the level and sizes follow
+    public static final int COUNT    = 2;       // the number of balls changed
+    public static final int BAT      = 4;       // the bat moved
+    public static final int SCORE    = 8;       // the score changed
+    public static final int BRICKS   = 16;      // bricks broke (or came back)
+    public static final int ACK      = 32;      // includes a command from the client
+    public static final int FINISHED = 64;      // the game is over - the last frame
+
+    public boolean started = false;             // a FULL frame has been written (read)
+    public long tick = -1;                      // update number
+    public int  width, height, brickCount;      // the level
+    public int  ballWidth, ballHeight, batWidth, batHeight;
+    public int  tickRate;
+    public int  balls;                          // the balls
+    public int[] ballX = new int[1], ballY = new int[1];
+    public int  batX, batY;                     // the bat
+    public int  score;
+    public long[] live = new long[0];           // one bit for each brick - 1 if it is there
+    public long ack = -1;                       // command included in the latest frame (read only, -1 none)
+    public boolean finished = false;
+
+    private BrickStore liveBricks;              // bricks the live bits came from (write only)
+    private int liveVersion;                    // ... and the version of their live bits
+
+    /**
+     * @return the most bytes write() can need to send this frame
+     */
+    public int maxSize( Frame f )
+    {
+        int n = f.getBallCount();
+        int bits = 0;
+        if (bricksChanged(f))
+        {
+            int words = (f.getBricks().size() + 63) >>> 6;
+            for (int w = 0; w < words; w++) bits += Long.bitCount(word(w, f) ^ f.getLiveWord(w));
+        }
+        return 1 + 10 + 8 * 5 + 10 + 5 + 10 + 5 + n * 10 + 5 + bits * 5;
+    }
+
+    /**
+     * Write what changed since the last frame written, and remember the new frame. The buffer
+     * must have maxSize(f) bytes left.
+     * @param f          the frame to send
+     * @param ack        the latest command from the client which the frame includes (-1 none)
+     * @param finished   true if this is the last frame (the game is over)
+     * @param out        where to write it (at its position)
+     */
+    public void write( Frame f, long ack, boolean finished, ByteBuffer out )
+    {
+        int start = out.position();
+        int flags = 0;
+        out.put((byte) 0);                      // (the flags, filled in at the end)
+        if (!started)
+        {
+            flags |= FULL;
+            putVarint(out, f.getTick());
+            width = f.getWorldWidth();  height = f.getWorldHeight();
+            brickCount = f.getBricks().size();
+            ballWidth = f.getBallWidth();  ballHeight = f.getBallHeight();
+            batWidth = f.getBatWidth();  batHeight = f.getBatHeight();
+            tickRate = (int) Math.round(1e9 / f.getTickNanos());
+            putVarint(out, width);      putVarint(out, height);     putVarint(out, brickCount);
+            putVarint(out, ballWidth);  putVarint(out, ballHeight);
+            putVarint(out, batWidth);   putVarint(out, batHeight);  putVarint(out, tickRate);
+            begin();
+        }
+        else
+        {
+            putVarint(out, f.getTick() - tick);
+        }
+        tick = f.getTick();
+        if (ack >= 0)
+        {
+            flags |= ACK;
+            putVarint(out, ack);
+        }
+        if (finished) flags |= FINISHED;
+        this.finished = finished;
+
+        int n = f.getBallCount();
+        if (n != balls)
+        {
+            flags |= COUNT;
+            putVarint(out, n);
+            setBalls(n);
+        }
+        if (f.getBatX() != batX || f.getBatY() != batY)
+        {
+            flags |= BAT;
+            putSigned(out, f.getBatX() - batX);  putSigned(out, f.getBatY() - batY);
+            batX = f.getBatX();  batY = f.getBatY();
+        }
+        if (f.getScore() != score)
+        {
+            flags |= SCORE;
+            putSigned(out, f.getScore() - score);
+            score = f.getScore();
+        }
+        for (int i = 0; i < n; i++)
+        {
+            int x = f.getBallX(i), y = f.getBallY(i);
+            putSigned(out, x - ballX[i]);  putSigned(out, y - ballY[i]);
+            ballX[i] = x;  ballY[i] = y;
+        }
+
+        // the bricks which changed - the bits that differ between the two sets of live bits
+        if (bricksChanged(f))
+        {
+            int words = live.length, bits = 0;
+            for (int w = 0; w < words; w++) bits += Long.bitCount(live[w] ^ f.getLiveWord(w));
+            if (bits > 0)
+            {
+                flags |= BRICKS;
+                putVarint(out, bits);
+                int last = -1;
+                for (int w = 0; w < words; w++)
+                {
+                    long diff = live[w] ^ f.getLiveWord(w);
+                    live[w] ^= diff;
+                    for (; diff != 0; diff &= diff - 1)
+                    {
+                        int b = (w << 6) + Long.numberOfTrailingZeros(diff);
+                        putVarint(out, b - last - 1);
+                        last = b;
+                    }
+                }
+            }
+            liveBricks  = f.getBricks();
+            liveVersion = f.getLiveVersion();
+        }
+        out.put(start, (byte) flags);
+    }
+
+    /**
+     * Read a frame written by write(), and apply it.
+     * @param in   the frame (from its position - it is read to the end of the frame)
+     */
+    public void read( ByteBuffer in )
+    {
+        int flags = in.get();
+        if ((flags & FULL) != 0)
+        {
+            tick = getVarint(in);
+            width = (int) getVarint(in);      height = (int) getVarint(in);
+            brickCount = (int) getVarint(in);
+            ballWidth = (int) getVarint(in);  ballHeight = (int) getVarint(in);
+            batWidth = (int) getVarint(in);   batHeight = (int) getVarint(in);
+            tickRate = (int) getVarint(in);
+            begin();
+        }
+        else
+        {
+            tick += getVarint(in);
+        }
+        ack = (flags & ACK) != 0 ? getVarint(in) : -1;
+        finished = (flags & FINISHED) != 0;
+        if ((flags & COUNT) != 0) setBalls((int) getVarint(in));
+        if ((flags & BAT) != 0)
+        {
+            batX += getSigned(in);  batY += getSigned(in);
+        }
+        if ((flags & SCORE) != 0) score += getSigned(in);
+        for (int i = 0; i < balls; i++)
+        {
+            ballX[i] += getSigned(in);  ballY[i] += getSigned(in);
+        }
+        if ((flags & BRICKS) != 0)
+        {
+            int bits = (int) getVarint(in), b = -1;
+            for (int k = 0; k < bits; k++)
+            {
+                b += (int) getVarint(in) + 1;
+                live[b >>> 6] ^= 1L << b;
+            }
+        }
+    }
+
+    /**
+     * @return true if brick i is there
+     */
+    public boolean isLive( int i )
+    {
+        return (live[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // The first frame - all the bricks there, no balls, bat and score at 0
+    private void begin()
+    {
+        live = new long[(brickCount + 63) >>> 6];
+        for (int w = 0; w < live.length; w++) live[w] = allLive(w, brickCount);
+        balls = 0;
+        Arrays.fill(ballX, 0);  Arrays.fill(ballY, 0);
+        batX = batY = score = 0;
+        liveBricks = null;
+        started = true;
+    }
+
+    // Change the number of balls - a new ball starts at 0, 0 (at both ends)
+    private void setBalls( int n )
+    {
+        if (ballX.length < n)
+        {
+            ballX = Arrays.copyOf(ballX, Math.max(n, 2 * ballX.length));
+            ballY = Arrays.copyOf(ballY, ballX.length);
+        }
+        for (int i = balls; i < n; i++) ballX[i] = ballY[i] = 0;
+        balls = n;
+    }
+
+    // true if the frame's bricks may differ from ours (write only)
+    private boolean bricksChanged( Frame f )
+    {
+        return !started || liveBricks != f.getBricks() || liveVersion != f.getLiveVersion();
+    }
+
+    // Word w of our live bits (all the bricks there, before the first frame)
+    private long word( int w, Frame f )
+    {
+        return started ? live[w] : allLive(w, f.getBricks().size());
+    }
+
+    // Word w of the live bits of n bricks which are all there
+    private static long allLive( int w, int n )
+    {
+        int left = n - (w << 6);
+        return left >= 64 ? -1L : left <= 0 ? 0 : (1L << left) - 1;
+    }
+
+    // Numbers in a frame
+
+    static void putVarint( ByteBuffer out, long n )
+    {
+        while ((n & ~0x7FL) != 0)
+        {
+            out.put((byte) ((n & 0x7F) | 0x80));
+            n >>>= 7;
+        }
+        out.put((byte) n);
+    }
+
+    static void putSigned( ByteBuffer out, int n )
+    {
+        putVarint(out, InputLog.zigzag(n) & 0xFFFFFFFFL);
+    }
+
+    static long getVarint( ByteBuffer in )
+    {
+        long n = 0;
+        for (int shift = 0; ; shift += 7)
+        {
+            int b = in.get();
+            n |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return n;
+        }
+    }
+
+    static int getSigned( ByteBuffer in )
+    {
+        return InputLog.unzigzag((int) getVarint(in));
+    }
+
+    /**
+     * @return the number of bytes putVarint writes for n
+     */
+    static int varintSize( long n )
+    {
+        int size = 1;
+        while ((n & ~0x7FL) != 0)
+        {
+            n >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,67 @@
+package breakout;
+
+// The gameplay settings of the Model - sizes, speeds and scores. The Model
+// copies these when it is created, so a set of games with different
+// settings can be run side by side (see BatchRunner.java). The names are
+// the same as the Model's own variables.
+
+/**
+ * <h2>GameConfig holds the tunable gameplay values of a Model.</h2>
+ * <p>A new GameConfig has the normal values of the game. Change the fields, then pass it to
+ * the Model constructor.</p>
+ */
+public class GameConfig
+{
+    public int BALL_SIZE   = 30;        // Ball size
+    public int BRICK_WIDTH = 50;        // Brick width
+    public int BAT_MOVE    = 5;         // Distance to move bat on each moveBat step
+    public int BAT_SPEED   = 12;        // Distance the bat moves on each update while a key is held
+    public int BALL_MOVE   = 4;         // Units to move the ball on each step
+    public int FAST_MOVE   = 8;         // Units to move the ball on each step in fast mode
+    public int BAT_ANGLE   = 100;       // How much the bat steers the ball: off the very end of
+                                        // the bat it goes BAT_ANGLE/100 across for each 1 up
+                                        // (0 - the bat bounces it like a wall)
+    public int HIT_BRICK   = 50;        // Score for hitting a brick
+    public int HIT_BOTTOM  = -200;      // Score (penalty) for hitting the bottom of the screen
+    public int BRICK_ROWS  = 4;         // Number of rows of bricks in the wall
+    public int BRICKS_PER_ROW = 11;     // Bricks in each row (fewer if the window is too narrow)
+    public int COMMANDS    = 64;        // Commands that can wait for the next update (see CommandQueue)
+
+    /**
+     * @return a copy of this config
+     */
+    public GameConfig copy()
+    {
+        GameConfig c = new GameConfig();
+        c.BALL_SIZE   = BALL_SIZE;
+        c.BRICK_WIDTH = BRICK_WIDTH;
+        c.BAT_MOVE    = BAT_MOVE;
+        c.BAT_SPEED   = BAT_SPEED;
+        c.BALL_MOVE   = BALL_MOVE;
+        c.FAST_MOVE   = FAST_MOVE;
+        c.BAT_ANGLE   = BAT_ANGLE;
+        c.HIT_BRICK   = HIT_BRICK;
+        c.HIT_BOTTOM  = HIT_BOTTOM;
+        c.BRICK_ROWS  = BRICK_ROWS;
+        c.BRICKS_PER_ROW = BRICKS_PER_ROW;
+        c.COMMANDS    = COMMANDS;
+        return c;
+    }
+
+    /**
+     * @return the values as comma separated text (in the same order as csvHeader)
+     */
+    public String toCsv()
+    {
+        return BALL_SIZE + "," + BRICK_WIDTH + "," + BAT_MOVE + "," + BAT_SPEED + "," + BALL_MOVE + "," + FAST_MOVE + "," + BAT_ANGLE + "," +
+               HIT_BRICK + "," + HIT_BOTTOM + "," + BRICK_ROWS + "," + BRICKS_PER_ROW + "," + COMMANDS;
+    }
+
+    /**
+     * @return the names of the values in toCsv
+     */
+    public static String csvHeader()
+    {
+        return "BALL_SIZE,BRICK_WIDTH,BAT_MOVE,BAT_SPEED,BALL_MOVE,FAST_MOVE,BAT_ANGLE,HIT_BRICK,HIT_BOTTOM,BRICK_ROWS,BRICKS_PER_ROW,COMMANDS";
+    }
+}
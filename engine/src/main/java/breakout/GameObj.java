@@ -1,11 +1,13 @@
+package breakout;
+
 // An object in the game, represented as a rectangle, with a position,
 // a size, a colour and a direction of movement.
 
 // Watch out for the different spellings of Color/colour - the class uses American
 // spelling, but we have chosen to use British spelling for the instance variable!
 
-// import Athe JavaFX Color class
-import javafx.scene.paint.Color;
+// The colour is an index into the Palette (see Palette.java), so a GameObj
+// does not need any JavaFX classes and can be used by a headless game
 /**
  * Class GameObj uses different methods for the movement of the bat and ball. 
  * In the GameObj we use height, width, position X and Y, direction X and Y and colour.
@@ -13,7 +15,7 @@ import javafx.scene.paint.Color;
  * @param topY    to get the position of top right corner.
  * @param width   fix the width of object in the game.
  * @param height  fix the height of object in the game.
- * @param Color   to give colour to the objects in the game.
+ * @param colour  to give colour (a Palette index) to the objects in the game.
  * @param dirX    to move to left side.
  * @param dirY    to move to right side.
  */
@@ -25,7 +27,7 @@ public class GameObj
     protected int topY   = 0;              // position - top left corner Y
     protected int width  = 0;              // Width of object
     protected int height = 0;              // Height of object
-    protected Color colour;                // Colour of object
+    protected int   colour;                // Colour of object (index into Palette)
     protected int   dirX   = 1;            // Direction X (1, 0 or -1)
     protected int   dirY   = 1;            // Direction Y (1, 0 or -1)
 
@@ -39,7 +41,7 @@ public class GameObj
      * @param colour  is used as c which gives colour to our objects like bricks, bat and ball.
      * 
      */
-    protected GameObj( int x, int y, int w, int h, Color c )
+    protected GameObj( int x, int y, int w, int h, int c )
     {
         topX   = x;       
         topY = y;
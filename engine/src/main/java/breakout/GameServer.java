@@ -0,0 +1,356 @@
+package breakout;
+
+// Runs lots of games at once - a game server - without a thread for each one.
+// Model.startGame gives every game its own thread, which sleeps between
+// updates; a few hundred games means a few hundred threads, most of their
+// time spent being woken up and put to sleep. Here one 'wheel' thread keeps
+// the timetable and a small pool of worker threads (one per core by default)
+// runs the updates.
+//
+// The timetable is a hashed timer wheel: SLOTS slots, each a list of the
+// games due in one slice of time (a tick length divided by SLOTS). The wheel
+// thread wakes at the start of each slot and hands the games in it to the
+// workers, through a queue they all take from - so a slow game only delays
+// the games behind it in the queue, and whichever worker is free takes the
+// next one. A game which is due further ahead than one turn of the wheel
+// waits in its slot for that many more turns ('rounds').
+//
+// Games are spread out fairly: a new game is given the slot with the fewest
+// games in it, and it always stays in that slot (its updates are exactly one
+// turn of the wheel apart), so every slot has about the same amount of work
+// and the workers are busy all the time rather than all at once.
+//
+// Usage (a benchmark - how many games one machine can run):
+//   java -cp engine/target/classes breakout.GameServer [tickRate] [workers] [seconds] [first]
+// adds games (first, then twice as many each step) until the server can no
+// longer keep to the timetable.
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h1>GameServer runs many Models on a timer wheel and a small pool of workers.</h1>
+ * <p>Games are added with add() (each game is a Session) and run until they finish or are
+ * closed. How late updates start and how long they take are measured for all the games
+ * together (getLate, getUpdateTimes), and each game's own TickStats count its late and dropped
+ * updates, as they do for a game on its own thread. If a game is more than MAX_CATCH_UP
+ * updates behind it gives up the missed updates - they are counted as dropped.</p>
+ */
+public class GameServer
+{
+    public static final int SLOTS = 64;             // slots in the wheel (a power of 2)
+    private static final int MAX_CATCH_UP = 5;      // most updates to run in a row to catch up
+
+    /**
+     * One game run by the server.
+     */
+    public static class Session
+    {
+        public final Model model;
+        private final BatPolicy bot;                // plays the bat (or null)
+        private final ModelListener listener;       // told after the game updates (or null)
+        private volatile boolean closed = false;
+
+        // only used by the wheel thread (and the worker running the game)
+        private long    deadline;                   // when the next update is due
+        private int     slot = -1;                  // the wheel slot it always goes in
+        private int     rounds;                     // turns of the wheel still to wait
+        private Session next;                       // next game in the same slot
+
+        Session( Model model, BatPolicy bot, ModelListener listener )
+        {
+            this.model = model;
+            this.bot = bot;
+            this.listener = listener;
+        }
+
+        /**
+         * Stop running this game (it is dropped before its next update).
+         */
+        public void close()
+        {
+            closed = true;
+        }
+
+        public boolean isClosed()
+        {
+            return closed;
+        }
+    }
+
+    private final long period;                      // nanoseconds between updates of a game
+    private final long slotNanos;                   // nanoseconds of one slot
+    private final int  workers;
+    private final int  maxSessions;                 // most games at once
+    private final long start = System.nanoTime();   // the wheel's time 0
+
+    // the wheel (wheel thread only)
+    private final Session[] wheel = new Session[SLOTS];   // the games in each slot
+    private final int[] load = new int[SLOTS];      // the number of games in each slot
+    private long cursor = 0;                        // slot number (ever) to be handed out next
+
+    // games passing between the threads - the queues are made with room for every
+    // game, and add() never lets in more than that, so no thread ever waits to put one in
+    private final ArrayBlockingQueue<Session> added;     // new games, for the wheel thread
+    private final ArrayBlockingQueue<Session> ready;     // games due, for the workers
+    private final ArrayBlockingQueue<Session> done;      // games updated, back to the wheel
+    private final AtomicInteger sessions = new AtomicInteger();     // games added and not yet gone
+    private volatile boolean running = true;
+
+    // measurements (all games together)
+    private final Histogram late        = new Histogram();  // due to started
+    private final Histogram updateTimes = new Histogram();  // time taken by each update
+    private final AtomicLong updates = new AtomicLong();    // updates run
+    private final AtomicLong dropped = new AtomicLong();    // updates given up
+
+    /**
+     * Make a server and start its threads.
+     * @param tickRate      updates per second of every game (the tick length is rounded to a
+     *                      whole number of nanoseconds for each slot)
+     * @param workers       threads to run the updates on
+     * @param maxSessions   most games it can run at once
+     */
+    public GameServer( int tickRate, int workers, int maxSessions )
+    {
+        slotNanos = 1_000_000_000L / tickRate / SLOTS;
+        period    = slotNanos * SLOTS;
+        this.workers = workers;
+        this.maxSessions = maxSessions;
+        added = new ArrayBlockingQueue<>(maxSessions);
+        ready = new ArrayBlockingQueue<>(maxSessions);
+        done  = new ArrayBlockingQueue<>(maxSessions);
+        Thread t = new Thread(this::runWheel, "GameServer-wheel");
+        t.setDaemon(true);
+        t.start();
+        for (int w = 0; w < workers; w++)
+        {
+            Thread worker = new Thread(this::runWorker, "GameServer-worker-" + w);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Add a game. The Model must already be initialised (initialiseGame); it is run until it
+     * finishes (its GameState is FINISHED) or the session is closed.
+     * @param model      the game
+     * @param bot        plays the bat before every update (null - nobody, or the player
+     *                   sends commands to the model)
+     * @param listener   told after the game has been updated (null - nobody). It is called on
+     *                   a worker thread, so it must be quick
+     * @return the session, or null if the server is full (it has maxSessions games already)
+     */
+    public Session add( Model model, BatPolicy bot, ModelListener listener )
+    {
+        if (sessions.incrementAndGet() > maxSessions)       // (a place for it, before it is added)
+        {
+            sessions.decrementAndGet();
+            return null;
+        }
+        Session s = new Session(model, bot, listener);
+        if (!added.offer(s))
+        {
+            sessions.decrementAndGet();
+            throw new IllegalStateException("GameServer: no room for a game it has a place for");
+        }
+        return s;
+    }
+
+    /**
+     * Stop the server's threads. The games stop where they are.
+     */
+    public void stop()
+    {
+        running = false;
+    }
+
+    public int       getSessions()     { return sessions.get(); }
+    public int       getWorkers()      { return workers; }
+    public long      getPeriodNanos()  { return period; }
+    public Histogram getLate()         { return late; }
+    public Histogram getUpdateTimes()  { return updateTimes; }
+    public long      getUpdates()      { return updates.get(); }
+    public long      getDropped()      { return dropped.get(); }
+
+    // The wheel thread - hands out the games due in each slot, in turn
+    private void runWheel()
+    {
+        while (running)
+        {
+            Session s;
+            while ((s = added.poll()) != null) place(s);
+            while ((s = done.poll()) != null)
+            {
+                if (s.closed || s.model.getGameState() == GameState.FINISHED)
+                {
+                    load[s.slot]--;                     // gone
+                    sessions.decrementAndGet();
+                }
+                else
+                {
+                    insert(s);
+                }
+            }
+            long now = System.nanoTime();
+            while (now - start >= cursor * slotNanos) expire((int) (cursor++ & (SLOTS - 1)));
+            LockSupport.parkNanos(start + cursor * slotNanos - now);
+        }
+    }
+
+    // A new game - put it in the slot with the fewest games, due the next time that slot comes round
+    private void place( Session s )
+    {
+        int best = 0;
+        for (int k = 1; k < SLOTS; k++) if (load[k] < load[best]) best = k;
+        load[best]++;
+        s.slot = best;
+        long first = cursor - (cursor & (SLOTS - 1)) + best;   // that slot in this turn of the wheel
+        if (first < cursor) first += SLOTS;                     // (already handed out - the next turn)
+        s.deadline = start + first * slotNanos;
+        insert(s);
+    }
+
+    // Put a game in the wheel at its deadline
+    private void insert( Session s )
+    {
+        long at = Math.max(cursor, (s.deadline - start) / slotNanos);   // (overdue - the next slot)
+        s.rounds = (int) ((at - cursor) / SLOTS);
+        int k = (int) (at & (SLOTS - 1));
+        s.next = wheel[k];
+        wheel[k] = s;
+    }
+
+    // Hand the games in slot k which are due now to the workers
+    private void expire( int k )
+    {
+        Session keep = null;
+        for (Session s = wheel[k], next; s != null; s = next)
+        {
+            next = s.next;
+            if (s.rounds > 0)
+            {
+                s.rounds--;                             // not this turn
+                s.next = keep;
+                keep = s;
+            }
+            else if (ready.offer(s))
+            {
+                s.next = null;
+            }
+            else                                        // (can't happen - there is room for every game)
+            {
+                Debug.error("GameServer::expire: the ready queue is full");
+                s.next = keep;
+                keep = s;
+            }
+        }
+        wheel[k] = keep;
+    }
+
+    // A worker thread - runs the games that are due, one after another
+    private void runWorker()
+    {
+        try
+        {
+            while (running)
+            {
+                Session s = ready.poll(100, TimeUnit.MILLISECONDS);
+                if (s == null) continue;
+                if (!s.closed) update(s);
+                if (!done.offer(s))                     // (can't happen - there is room for every game)
+                {
+                    Debug.error("GameServer::runWorker: the done queue is full");
+                    done.put(s);
+                }
+            }
+        } catch (InterruptedException e)
+        {
+            Debug.error("GameServer::runWorker: interrupted");
+        }
+    }
+
+    // Run the updates of a game which are due (a worker thread)
+    private void update( Session s )
+    {
+        Model model = s.model;
+        long now = System.nanoTime();
+        int ran = 0;
+        while (now - s.deadline >= 0 && ran < MAX_CATCH_UP)
+        {
+            late.record(now - s.deadline);
+            if (s.bot != null)
+            {
+                int move = s.bot.move(model);
+                if (move != 0) model.moveBat(move);
+            }
+            long t0 = System.nanoTime();
+            model.scheduledUpdate(s.deadline, now);
+            updateTimes.record(System.nanoTime() - t0);
+            s.deadline += period;
+            ran++;
+        }
+        updates.addAndGet(ran);
+        if (now - s.deadline >= 0)                      // still behind - give up the missed updates
+        {
+            long missed = (now - s.deadline) / period + 1;
+            model.getTickStats().drop(missed);
+            dropped.addAndGet(missed);
+            s.deadline += missed * period;
+        }
+        if (s.listener != null) s.listener.modelChanged(model);
+    }
+
+    /**
+     * The benchmark - run more and more games (each with a bot on the bat) until the server
+     * can't keep up. It keeps up if, over a step, every game ran at least 99% of its updates,
+     * none were dropped, and 99% of them started less than one tick late.
+     * @param args   tick rate (default 50), workers (default one per core), seconds per step
+     *               (default 5) and games in the first step (default 500)
+     */
+    public static void main( String args[] ) throws InterruptedException
+    {
+        int tickRate = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int workers  = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds  = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int count    = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        Debug.set(false);
+
+        GameServer server = new GameServer(tickRate, workers, 1 << 20);
+        System.out.printf("GameServer: %d updates/s per game, %d workers, %d s per step%n",
+            tickRate, workers, seconds);
+        int supported = 0;
+        for (int step = 0; ; step++)
+        {
+            while (server.getSessions() < count)
+            {
+                Model model = new Model(600, 800);
+                model.initialiseGame();
+                server.add(model, BatPolicy.tracking(server.getSessions(), 0.1), null);
+            }
+            Thread.sleep(1000);                         // (let the new games settle in)
+            server.getLate().reset();
+            server.getUpdateTimes().reset();
+            long updates0 = server.getUpdates(), dropped0 = server.getDropped();
+            Thread.sleep(seconds * 1000L);
+            long updates = server.getUpdates() - updates0, dropped = server.getDropped() - dropped0;
+            double rate = updates / (double) seconds / count;
+            boolean ok = rate >= tickRate * 0.99 && dropped == 0
+                && server.getLate().getP99Micros() * 1000 < server.getPeriodNanos();
+            System.out.printf("GameServer: %6d games  %8.0f updates/s  %5.1f/s per game  " +
+                "late p50 %7.1f us  p99 %8.1f us  max %8.1f us  update p50 %5.1f us  dropped %d%s%n",
+                count, updates / (double) seconds, rate,
+                server.getLate().getP50Micros(), server.getLate().getP99Micros(),
+                server.getLate().getMaxMicros(), server.getUpdateTimes().getP50Micros(),
+                dropped, ok ? "" : "  - can't keep up");
+            if (!ok) break;
+            supported = count;
+            count *= 2;
+        }
+        System.out.printf("GameServer: supports %d games at %d updates/s on %d workers%n",
+            supported, tickRate, workers);
+        server.stop();
+    }
+}
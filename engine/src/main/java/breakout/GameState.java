@@ -0,0 +1,15 @@
+package breakout;
+
+// Whether the game is still being played. The game loop looks at this before
+// every update, so it is an enum (compared with ==) rather than a String.
+
+/**
+ * <h2>GameState says if the game is running or finished.</h2>
+ * <p>The Model changes it at the start of an update (see Model.setGameState); anyone can
+ * read it at any time with Model.getGameState.</p>
+ */
+public enum GameState
+{
+    RUNNING,        // the game is being played
+    FINISHED        // the game has been stopped - the game loop ends
+}
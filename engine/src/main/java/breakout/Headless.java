@@ -0,0 +1,49 @@
+package breakout;
+
+// Run the breakout game with no display at all - use this class for
+// regression runs and bot evaluation on machines without a screen.
+// Usage:  java -cp engine/target/classes breakout.Headless [ticks] [level.lvl]
+// (a level file is made from a text level with breakout.LevelFile)
+
+/**
+ * <h1>Headless runs the breakout Model without JavaFX.</h1>
+ * <p>The Model is stepped as fast as the CPU allows (no sleeping and no View), and the
+ * number of ticks per second is printed at the end.</p>
+ */
+public class Headless
+{
+    /**
+     * Start a headless game and run it for the given number of ticks.
+     * @param args   optional number of ticks to run (default 10,000,000) and level file
+     */
+    public static void main( String args[] ) throws java.io.IOException
+    {
+        int  H = 800;          // Height of the game area (in pixels)
+        int  W = 600;          // Width  of the game area (in pixels)
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+
+        Debug.set(false);      // no printing in the middle of a fast run
+
+        LevelFile level = null;
+        if (args.length > 1)
+        {
+            long open = System.nanoTime();
+            level = LevelFile.open(java.nio.file.Paths.get(args[1]));
+            System.out.printf("Headless: level of %d bricks opened in %.3f ms%n",
+                level.getBrickCount(), (System.nanoTime() - open) / 1e6);
+            W = level.getWidth();
+            H = level.getHeight();
+        }
+
+        Model model = new Model(W,H);
+        model.setLevel(level);
+        model.initialiseGame();
+
+        long start = System.nanoTime();
+        long done  = model.runTicks(ticks);
+        long time  = System.nanoTime() - start;
+
+        System.out.printf("Headless: %d ticks in %.3f s (%.0f ticks/s), score = %d%n",
+            done, time / 1e9, done * 1e9 / Math.max(1, time), model.getScore());
+    }
+}
@@ -0,0 +1,115 @@
+package breakout;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A histogram of times (in nanoseconds) in the style of HdrHistogram: every
+// power of two is split into 32 buckets, so any time is counted in a bucket
+// no more than about 3% wider than the time itself, from 1 ns to years,
+// in a fixed array of under 2000 counters. Recording is a few atomic adds
+// with no locks and no garbage, so it can be done on every update.
+
+/**
+ * <h2>Histogram counts how long something took, to about 3% accuracy.</h2>
+ * <p>Any thread can record at any time. The percentiles are worked out when they are read
+ * (for example by jconsole, through HistogramMBean), from a copy of the counts. A percentile
+ * is reported as the top of its bucket, so it is never smaller than the real value.</p>
+ */
+public class Histogram implements HistogramMBean
+{
+    private static final int SUB_BITS = 5;                  // 2^5 = 32 buckets per power of two
+    private static final int SUB      = 1 << SUB_BITS;
+    private static final int LINEAR   = 2 * SUB;            // 0..63 are counted exactly
+    private static final int BUCKETS  = LINEAR + (63 - SUB_BITS - 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();      // Number of times recorded
+    private final AtomicLong total = new AtomicLong();      // Sum of the times
+    private final AtomicLong max   = new AtomicLong();      // Longest time
+
+    /**
+     * Record one time.
+     * @param nanos   the time (negative times count as 0)
+     */
+    public void record( long nanos )
+    {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        if (nanos > max.get()) max.accumulateAndGet(nanos, Math::max);
+    }
+
+    // The bucket a time is counted in
+    private static int bucket( long v )
+    {
+        if (v < LINEAR) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;   // 1 or more
+        return LINEAR + (shift - 1) * SUB + (int) (v >>> shift) - SUB;
+    }
+
+    // The biggest time counted in a bucket
+    private static long top( int b )
+    {
+        if (b < LINEAR) return b;
+        int shift = (b - LINEAR) / SUB + 1;
+        long sub  = (b - LINEAR) % SUB + SUB;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * @param p   the percentile (0 to 100)
+     * @return    the time (nanoseconds) which p percent of the recorded times are no longer than
+     */
+    public long percentile( double p )
+    {
+        long[] c = new long[BUCKETS];
+        long n = 0;
+        for (int b = 0; b < BUCKETS; b++)
+        {
+            c[b] = counts.get(b);
+            n += c[b];
+        }
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * n));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++)
+        {
+            seen += c[b];
+            if (seen >= rank) return Math.min(top(b), max.get());
+        }
+        return max.get();
+    }
+
+    public long getCount()          { return count.get(); }
+    public long getMaxNanos()       { return max.get(); }
+    public double getMaxMicros()    { return max.get() / 1e3; }
+    public double getP50Micros()    { return percentile(50) / 1e3; }
+    public double getP90Micros()    { return percentile(90) / 1e3; }
+    public double getP99Micros()    { return percentile(99) / 1e3; }
+    public double getP999Micros()   { return percentile(99.9) / 1e3; }
+
+    public double getMeanMicros()
+    {
+        long n = count.get();
+        return n == 0 ? 0 : total.get() / 1e3 / n;
+    }
+
+    public void reset()
+    {
+        for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * @return a one line summary, for debugging messages
+     */
+    public String toString()
+    {
+        return String.format("n %d, mean %.1f us, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+            getCount(), getMeanMicros(), getP50Micros(), getP99Micros(), getP999Micros(),
+            getMaxMicros());
+    }
+}
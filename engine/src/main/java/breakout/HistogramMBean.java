@@ -0,0 +1,23 @@
+package breakout;
+
+// What a Histogram shows in jconsole (MBeans tab, breakout). All the times
+// are in microseconds.
+
+/**
+ * <h2>HistogramMBean is the JMX view of a Histogram.</h2>
+ */
+public interface HistogramMBean
+{
+    long   getCount();
+    double getMeanMicros();
+    double getMaxMicros();
+    double getP50Micros();
+    double getP90Micros();
+    double getP99Micros();
+    double getP999Micros();
+
+    /**
+     * Forget everything recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,53 @@
+package breakout;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// A key press reaching the game (see TickEvent.java for JFR events in general).
+
+/**
+ * <h2>InputEvent is a key press taking effect in the Model.</h2>
+ * <p>For a bat key the latency is from the key going down to the first update that moves
+ * the bat. For the other keys it is from the Controller sending the command until the update
+ * that runs it (see CommandQueue).</p>
+ */
+@Name("breakout.Input")
+@Label("Input")
+@Category("Breakout")
+@Description("A key press taking effect in the Model")
+@Enabled(false)
+@StackTrace(false)
+public class InputEvent extends jdk.jfr.Event
+{
+    @Label("Key")
+    public String key;
+
+    @Label("Tick")
+    @Description("The update the input took effect in")
+    public long tick;
+
+    @Label("Latency")
+    @Description("From the key press until it took effect")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+
+    /**
+     * Record a key press taking effect (if a recording wants inputs).
+     */
+    static void emit( String key, long tick, long latency )
+    {
+        InputEvent event = new InputEvent();
+        if (event.shouldCommit())
+        {
+            event.key     = key;
+            event.tick    = tick;
+            event.latency = latency;
+            event.commit();
+        }
+    }
+}
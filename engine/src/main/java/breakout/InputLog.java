@@ -0,0 +1,204 @@
+package breakout;
+
+// Records everything the player does to the Model (moving the bat, changing
+// speed, stopping the game, adding balls), together with the number of the
+// update it happened after, in a small binary file. The game does not use
+// the clock or random numbers, so playing the same inputs after the same
+// updates gives exactly the same game - see Replay.java.
+//
+// To check that a replay really is the same game, a hash of the whole game
+// state is worked out after every update and folded into a running 'chain'
+// hash. Every CHECK_TICKS updates (and at the end) the chain hash is written
+// to the log, so a replay can tell exactly where (to within CHECK_TICKS
+// updates) it went different.
+//
+// File format: the header is the magic number, the format version, the
+// game width and height, (from version 3) the updates between checkpoints
+// - a RESTORE goes back to the latest one, so a replay must take them at the
+// same updates - and (from version 4) the size of the rewind history (updates,
+// updates between keyframes and bytes, all 0 if there is none), so a REWIND
+// goes back to the same place. Then each record is a varint (the number of updates
+// since the previous record), an op code byte and the op's arguments.
+
+import java.io.*;
+
+/**
+ * <h2>InputLog writes the player's inputs to a compact binary log.</h2>
+ * <p>The Model calls input() for every input and tick() after every update, while a log is
+ * attached (see Model.setInputLog). Numbers are written as variable length integers, so a
+ * bat move is usually 3 bytes.</p>
+ */
+public class InputLog
+{
+    public static final int MAGIC   = 0x42524B52;   // "BRKR"
+    public static final int VERSION = 6;            // (2 added KEYS, 3 RESTORE, 4 REWIND, 5 fixed point physics,
+                                                    //  6 command queue size)
+    public static final int OLDEST  = 5;            // oldest version a replay gives the same game for
+
+    // op codes
+    public static final int MOVE_BAT  = 1;          // arg: direction
+    public static final int FAST      = 2;          // arg: 1 fast, 0 normal
+    public static final int STATE     = 3;          // arg: 1 finished, 0 running
+    public static final int ADD_BALLS = 4;          // arg: number of balls
+    public static final int CHECK     = 5;          // arg: chain hash (8 bytes)
+    public static final int END       = 6;          // arg: chain hash (8 bytes)
+    public static final int KEYS      = 7;          // arg: bat keys held (InputState)
+    public static final int RESTORE   = 8;          // arg: 0 (back to the latest checkpoint)
+    public static final int REWIND    = 9;          // arg: updates to go back
+
+    public static final int CHECK_TICKS = 50;       // updates between CHECK records
+
+    private final DataOutputStream out;
+    private long lastTick = 0;                      // update number of the previous record
+    private long chain    = 0;                      // chain of the state hashes so far
+    private boolean closed = false;
+
+    /**
+     * Start a log.
+     * @param stream   where to write the log (it is buffered here)
+     */
+    public InputLog( OutputStream stream )
+    {
+        out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+    }
+
+    /**
+     * Write the header. Called by the Model when the game is (re)initialised.
+     * @param width, height   size of the game
+     * @param commands        size of the game's command queue (a replay must use the same)
+     * @param checkpoint      updates between checkpoints (0 - none, see Model.setCheckpointTicks)
+     * @param rewind          the game's history (null - none, see Model.setRewind)
+     */
+    public synchronized void begin( int width, int height, int commands, int checkpoint, Rewind rewind )
+    {
+        try
+        {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVarint(out, width);
+            writeVarint(out, height);
+            writeVarint(out, commands);
+            writeVarint(out, checkpoint);
+            writeVarint(out, rewind != null ? rewind.getTicks()    : 0);
+            writeVarint(out, rewind != null ? rewind.getKeyTicks() : 0);
+            writeVarint(out, rewind != null ? rewind.getBytes()    : 0);
+            lastTick = 0;
+            chain = 0;
+        } catch (IOException e)
+        {
+            Debug.error("InputLog::begin: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Record one input.
+     * @param tick   number of updates run before the input
+     * @param op     op code (MOVE_BAT etc)
+     * @param arg    argument of the op
+     */
+    public synchronized void input( long tick, int op, int arg )
+    {
+        if (closed) return;
+        try
+        {
+            writeVarint(out, tick - lastTick);
+            out.writeByte(op);
+            writeVarint(out, zigzag(arg) & 0xFFFFFFFFL);
+            lastTick = tick;
+        } catch (IOException e)
+        {
+            Debug.error("InputLog::input: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Add the state hash after an update to the chain, and write a CHECK record every
+     * CHECK_TICKS updates.
+     * @param tick   number of the update
+     * @param hash   hash of the game state after the update
+     */
+    public synchronized void tick( long tick, long hash )
+    {
+        chain = chain( chain, hash );
+        if (tick % CHECK_TICKS == 0) check(tick, CHECK);
+    }
+
+    /**
+     * Write the END record and close the log.
+     * @param tick   number of updates run
+     */
+    public synchronized void close( long tick )
+    {
+        if (closed) return;
+        check(tick, END);
+        try
+        {
+            out.close();
+        } catch (IOException e)
+        {
+            Debug.error("InputLog::close: %s", e.getMessage());
+        }
+        closed = true;
+    }
+
+    // write a CHECK or END record
+    private void check( long tick, int op )
+    {
+        if (closed) return;
+        try
+        {
+            writeVarint(out, tick - lastTick);
+            out.writeByte(op);
+            out.writeLong(chain);
+            lastTick = tick;
+        } catch (IOException e)
+        {
+            Debug.error("InputLog::check: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Fold one state hash into the chain.
+     */
+    public static long chain( long chain, long hash )
+    {
+        return mix(chain * 31 + hash);
+    }
+
+    /**
+     * Scramble the bits of a number (the 'splitmix' finaliser), for hashing.
+     */
+    public static long mix( long z )
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // zig-zag encoding - small negative numbers become small positive numbers
+    static int zigzag( int n )   { return (n << 1) ^ (n >> 31); }
+    static int unzigzag( int n ) { return (n >>> 1) ^ -(n & 1); }
+
+    // write a number 7 bits at a time - small numbers take one byte
+    static void writeVarint( DataOutput out, long n ) throws IOException
+    {
+        while ((n & ~0x7FL) != 0)
+        {
+            out.writeByte((int) ((n & 0x7F) | 0x80));
+            n >>>= 7;
+        }
+        out.writeByte((int) n);
+    }
+
+    // read a number written by writeVarint
+    static long readVarint( DataInput in ) throws IOException
+    {
+        long n = 0;
+        for (int shift = 0; ; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            n |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return n;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package breakout;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Which of the bat keys are held down. The JavaFX thread writes it when a key
+// goes down or up, and the game thread reads it once at the start of every
+// update and moves the bat itself - so the bat moves at the same speed
+// whatever the keyboard repeat rate is, and pressing a key never has to wait
+// for the game (there are no locks, just one atomic int).
+
+/**
+ * <h2>InputState holds the bat keys (left and right) that are down.</h2>
+ * <p>press and release are called by the Controller, sample by the game thread. A key which
+ * is pressed and released again between two updates still counts as down for one update
+ * (it is 'tapped'), so a quick tap always moves the bat.</p>
+ * <p>The time each key went down is kept, so the Model can measure how long it took for the
+ * bat to start moving (never more than one update, plus the update itself).</p>
+ */
+public class InputState
+{
+    public static final int LEFT  = 1;          // Left key held
+    public static final int RIGHT = 2;          // Right key held
+    private static final int TAPS = 2;          // LEFT << TAPS: left pressed since the last sample
+
+    private final AtomicInteger keys = new AtomicInteger();
+    private volatile long leftDown, rightDown;  // When each key went down (System.nanoTime)
+
+    /**
+     * A key has gone down. Auto-repeat presses of a key that is already down are ignored.
+     * Only one thread (the JavaFX thread) may press keys.
+     * @param key    LEFT or RIGHT
+     * @param now    when (System.nanoTime)
+     */
+    public void press( int key, long now )
+    {
+        if ((keys.get() & key) != 0) return;    // already down - an auto-repeat
+        if (key == LEFT) leftDown = now;  else rightDown = now;   // (before the game can see it)
+        int old;
+        do
+        {
+            old = keys.get();
+        } while (!keys.compareAndSet(old, old | key | (key << TAPS)));
+    }
+
+    /**
+     * A key has come up.
+     * @param key    LEFT or RIGHT
+     */
+    public void release( int key )
+    {
+        int old;
+        do
+        {
+            old = keys.get();
+        } while (!keys.compareAndSet(old, old & ~key));
+    }
+
+    /**
+     * Take the keys for one update (game thread only). The keys tapped since the last sample
+     * are returned as well as the keys held, and the taps are then forgotten.
+     * @return  the keys - use held() for the keys that count, pressed() for the new ones
+     */
+    public int sample()
+    {
+        int old;
+        do
+        {
+            old = keys.get();
+        } while (!keys.compareAndSet(old, old & (LEFT | RIGHT)));
+        return old;
+    }
+
+    /**
+     * Set the keys held, with no taps - used by Replay to play back recorded keys.
+     * @param held    LEFT, RIGHT, both or neither
+     */
+    public void set( int held )
+    {
+        keys.set(held & (LEFT | RIGHT));
+    }
+
+    /**
+     * @param sample  from sample()
+     * @return        the keys that count as down for this update (held or tapped)
+     */
+    public static int held( int sample )
+    {
+        return (sample | (sample >>> TAPS)) & (LEFT | RIGHT);
+    }
+
+    /**
+     * @param sample  from sample()
+     * @return        the keys that went down since the last sample
+     */
+    public static int pressed( int sample )
+    {
+        return (sample >>> TAPS) & (LEFT | RIGHT);
+    }
+
+    /**
+     * @param held    from held()
+     * @return        the direction the bat should move (-1 left, 0 still, 1 right)
+     */
+    public static int direction( int held )
+    {
+        return ((held & RIGHT) != 0 ? 1 : 0) - ((held & LEFT) != 0 ? 1 : 0);
+    }
+
+    /**
+     * @param key     LEFT or RIGHT
+     * @return        when that key last went down (System.nanoTime)
+     */
+    public long downTime( int key )
+    {
+        return key == LEFT ? leftDown : rightDown;
+    }
+}
@@ -0,0 +1,306 @@
+package breakout;
+
+// Levels (brick walls) in a compact binary file, which is mapped into memory
+// rather than read, so opening a level takes the same time however many
+// bricks it has. The bricks are only read from the file (by the operating
+// system, a page at a time) when the game looks at them.
+// Usage:  java -cp engine/target/classes breakout.LevelFile level.txt level.lvl
+// converts a text level (see below) to a level file, which can be played with
+//         java -cp engine/target/classes breakout.Headless 1000000 level.lvl
+//
+// File format - all numbers are 4 byte little endian ints unless noted:
+//   header    MAGIC, VERSION, width, height, bricks, solid bricks,
+//             grid originX, originY, cellW, cellH, cols, rows, entries
+//   bricks    the BrickStore columns: x, y, w, h (ints), then colour, type
+//             and hits (a byte each), then 0 to 3 bytes to line up the next
+//             int on a multiple of 4
+//   grid      the BrickGrid cell table: cellStart (cols*rows+1 ints), then
+//             cellItems and itemHome (entries ints each)
+//
+// Text format - one thing per line, # starts a comment:
+//   size W H                          the size of the level
+//   brick X Y W H [colour [hits [type]]]
+//                                     one brick (colour is a Palette name or
+//                                     number, hits 0 means it never breaks)
+//   wall X Y W H GAP                  a wall of W by H bricks, GAP apart, with
+//                                     its top left corner at X,Y - each line
+//                                     after it, up to 'end', is a row of the
+//                                     wall, one character for each brick:
+//                                       .  or space - no brick
+//                                       Y R K G     - yellow, red, black, grey
+//                                       2 to 9      - yellow, takes that many hits
+//                                       #           - black, never breaks
+//   end
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <h2>LevelFile is a level of bricks, memory mapped from a file.</h2>
+ * <p>open() maps the file and checks the header - nothing else is read. Each game on the level
+ * gets its own BrickStore and BrickGrid (newBricks and newGrid) which use the mapped columns
+ * and cell table as they are, and only keep the bits that change during a game on the heap.
+ * A level file is written by write() (or converted from text by main).</p>
+ */
+public class LevelFile
+{
+    public static final int MAGIC   = 0x42524B4C;   // "BRKL"
+    public static final int VERSION = 1;
+    private static final int HEADER = 13 * 4;       // bytes in the header
+
+    private final ByteBuffer file;          // The whole file (mapped)
+    private final int width, height;        // Size of the level
+    private final int count, solid;         // Number of bricks, and of those which never break
+    private final int[] grid;               // originX, originY, cellW, cellH, cols, rows, entries
+    private final int gridAt;               // Where the cell table starts in the file
+
+    private LevelFile( ByteBuffer file )
+    {
+        this.file = file.order(ByteOrder.LITTLE_ENDIAN);
+        if (file.capacity() < HEADER || file.getInt(0) != MAGIC)
+        {
+            throw new IllegalStateException("not a breakout level");
+        }
+        if (file.getInt(4) != VERSION) throw new IllegalStateException("level version " + file.getInt(4));
+        width  = file.getInt(8);
+        height = file.getInt(12);
+        count  = file.getInt(16);
+        solid  = file.getInt(20);
+        grid   = new int[7];
+        for (int i = 0; i < 7; i++) grid[i] = file.getInt(24 + 4 * i);
+        gridAt = HEADER + align(count * BrickStore.RECORD);
+        long cells = (long) grid[4] * grid[5];
+        if (count < 0 || cells <= 0 || grid[6] < 0 ||
+            gridAt + 4 * (cells + 1 + 2L * grid[6]) != file.capacity())
+        {
+            throw new IllegalStateException("level file is the wrong size");
+        }
+    }
+
+    /**
+     * Open a level file. Only the header is read - the bricks are read (by the operating
+     * system) as the game uses them.
+     * @param path   the level file
+     * @return       the level
+     * @throws IllegalStateException if it is not a level file
+     */
+    public static LevelFile open( Path path ) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            // (the mapping stays valid after the channel is closed)
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return new LevelFile(map);
+        }
+    }
+
+    public int getWidth()       { return width; }
+    public int getHeight()      { return height; }
+    public int getBrickCount()  { return count; }
+
+    /**
+     * @return the bricks for a new game on this level (all visible) - uses the file as it is
+     */
+    public BrickStore newBricks()
+    {
+        return new BrickStore(file.slice(HEADER, count * BrickStore.RECORD), count, solid);
+    }
+
+    /**
+     * @return the grid for a new game on this level - uses the file's cell table as it is
+     */
+    public BrickGrid newGrid()
+    {
+        return new BrickGrid(grid[0], grid[1], grid[2], grid[3], grid[4], grid[5], grid[6],
+                             file.slice(gridAt, file.capacity() - gridAt));
+    }
+
+    /**
+     * Write a level file. A grid is built for the bricks, with cells as big as the biggest
+     * brick, covering all the bricks.
+     * @param path     the file to write
+     * @param width    width of the level
+     * @param height   height of the level
+     * @param bricks   the bricks (all of them visible)
+     */
+    public static void write( Path path, int width, int height, BrickStore bricks ) throws IOException
+    {
+        int n = bricks.size();
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = 0, maxY = 0;
+        int cellW = 1, cellH = 1, solid = 0;
+        for (int i = 0; i < n; i++)
+        {
+            minX  = Math.min(minX, bricks.x(i));   maxX = Math.max(maxX, bricks.x(i) + bricks.w(i));
+            minY  = Math.min(minY, bricks.y(i));   maxY = Math.max(maxY, bricks.y(i) + bricks.h(i));
+            cellW = Math.max(cellW, bricks.w(i));  cellH = Math.max(cellH, bricks.h(i));
+            if (bricks.hits(i) == 0) solid++;
+        }
+        if (n == 0) minX = minY = 0;
+        BrickGrid grid = new BrickGrid(minX, minY, cellW, cellH, maxX - minX, maxY - minY);
+        for (int i = 0; i < n; i++) grid.add(i, bricks.x(i), bricks.y(i), bricks.w(i), bricks.h(i));
+        grid.build();
+
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(n).putInt(solid);
+            for (int g : grid.header()) header.putInt(g);
+            header.flip();
+            BrickStore.writeFully(out, header);
+            bricks.writeTo(out);
+            BrickStore.writeFully(out, ByteBuffer.allocate(align(n * BrickStore.RECORD) - n * BrickStore.RECORD));
+            grid.writeTo(out);
+        }
+    }
+
+    // round up to a multiple of 4
+    private static int align( int bytes )
+    {
+        return (bytes + 3) & ~3;
+    }
+
+    /**
+     * Convert a text level to a level file.
+     * @param args   the text file and the level file to write
+     */
+    public static void main( String args[] ) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.out.println("Usage: java -cp engine/target/classes breakout.LevelFile level.txt level.lvl");
+            return;
+        }
+        try (Reader in = new FileReader(args[0]))
+        {
+            long start = System.nanoTime();
+            int[] size = { 600, 800 };
+            BrickStore bricks = parse(in, size);
+            write(Paths.get(args[1]), size[0], size[1], bricks);
+            System.out.printf("LevelFile: %d bricks written to %s in %.3f s%n",
+                bricks.size(), args[1], (System.nanoTime() - start) / 1e9);
+        }
+        catch (IllegalStateException e)
+        {
+            System.out.println("LevelFile: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read a text level (the format is described at the top of this file).
+     * @param in     the text
+     * @param size   the width and height - changed by a 'size' line
+     * @return       the bricks
+     * @throws IllegalStateException if a line can't be understood
+     */
+    public static BrickStore parse( Reader in, int[] size ) throws IOException
+    {
+        BufferedReader lines = new BufferedReader(in);
+        int[] b = new int[7 * 64];              // x, y, w, h, colour, type, hits of each brick
+        int n = 0, lineNo = 0;
+        int[] wall = null;                      // X, Y, W, H, GAP, row - while reading a wall
+        for (String line; (line = lines.readLine()) != null; )
+        {
+            lineNo++;
+            if (wall != null)                   // a row of a wall
+            {
+                if (line.trim().equals("end")) { wall = null; continue; }
+                for (int c = 0; c < line.length(); c++)
+                {
+                    int[] brick = wallBrick(line.charAt(c), lineNo);
+                    if (brick == null) continue;
+                    if (7 * n == b.length) b = Arrays.copyOf(b, b.length * 2);
+                    int at = 7 * n++;
+                    b[at]     = wall[0] + c * (wall[2] + wall[4]);
+                    b[at + 1] = wall[1] + wall[5] * (wall[3] + wall[4]);
+                    b[at + 2] = wall[2];  b[at + 3] = wall[3];
+                    b[at + 4] = brick[0]; b[at + 5] = BrickStore.NORMAL;  b[at + 6] = brick[1];
+                }
+                wall[5]++;
+                continue;
+            }
+            int hash = line.indexOf('#');
+            String[] word = (hash < 0 ? line : line.substring(0, hash)).trim().split("\\s+");
+            if (word[0].isEmpty()) continue;
+            try
+            {
+                switch (word[0])
+                {
+                    case "size":
+                        size[0] = Integer.parseInt(word[1]);
+                        size[1] = Integer.parseInt(word[2]);
+                        break;
+                    case "brick":
+                        if (7 * n == b.length) b = Arrays.copyOf(b, b.length * 2);
+                        int at = 7 * n++;
+                        for (int k = 0; k < 4; k++) b[at + k] = Integer.parseInt(word[1 + k]);
+                        b[at + 4] = word.length > 5 ? colour(word[5]) : Palette.YELLOW;
+                        b[at + 6] = word.length > 6 ? Integer.parseInt(word[6]) : 1;
+                        b[at + 5] = word.length > 7 ? Integer.parseInt(word[7]) : BrickStore.NORMAL;
+                        if (b[at + 6] < 0 || b[at + 6] > 255) throw new NumberFormatException("hits " + word[6]);
+                        break;
+                    case "wall":
+                        wall = new int[6];
+                        for (int k = 0; k < 5; k++) wall[k] = Integer.parseInt(word[1 + k]);
+                        break;
+                    default:
+                        throw new IllegalStateException("line " + lineNo + ": unknown '" + word[0] + "'");
+                }
+            }
+            catch (NumberFormatException | ArrayIndexOutOfBoundsException e)
+            {
+                throw new IllegalStateException("line " + lineNo + ": " + line.trim());
+            }
+        }
+        if (wall != null) throw new IllegalStateException("no 'end' after the last wall");
+
+        BrickStore bricks = new BrickStore(n);
+        for (int i = 0; i < n; i++)
+        {
+            int at = 7 * i;
+            bricks.add(b[at], b[at + 1], b[at + 2], b[at + 3], b[at + 4], b[at + 5], b[at + 6]);
+        }
+        return bricks;
+    }
+
+    // The colour and hits of one character of a wall row (null - no brick)
+    private static int[] wallBrick( char ch, int lineNo )
+    {
+        switch (ch)
+        {
+            case '.': case ' ': case '\t': return null;
+            case 'Y': return new int[] { Palette.YELLOW, 1 };
+            case 'R': return new int[] { Palette.RED,    1 };
+            case 'K': return new int[] { Palette.BLACK,  1 };
+            case 'G': return new int[] { Palette.GREY,   1 };
+            case '#': return new int[] { Palette.BLACK,  0 };
+            default:
+                if (ch >= '2' && ch <= '9') return new int[] { Palette.YELLOW, ch - '0' };
+                throw new IllegalStateException("line " + lineNo + ": no brick is '" + ch + "'");
+        }
+    }
+
+    // A colour from its Palette name or number
+    private static int colour( String name )
+    {
+        switch (name.toLowerCase())
+        {
+            case "grey":   return Palette.GREY;
+            case "red":    return Palette.RED;
+            case "black":  return Palette.BLACK;
+            case "yellow": return Palette.YELLOW;
+            default:
+                int c = Integer.parseInt(name);
+                if (c < 0 || c >= Palette.SIZE) throw new NumberFormatException("colour " + name);
+                return c;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package breakout;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Measurements of the running game, published as JMX MBeans so they can be
+// watched with jconsole (or any JMX client) while the game is played:
+//   breakout:type=Metrics                      tick rate, jitter, drift, frames
+//   breakout:type=Histogram,name=updateGame    time taken by Model.updateGame
+//   breakout:type=Histogram,name=drawPicture   time taken by View.drawPicture
+//   breakout:type=Histogram,name=frameLag      time from a frame being published
+//                                              (modelChanged) to the View drawing it
+//   breakout:type=Histogram,name=monitorWait   time spent waiting to lock the Model
+//                                              (updateGame, and getters such as getScore)
+//   breakout:type=Histogram,name=inputLatency  time from a bat key going down to the
+//                                              bat starting to move
+// A Model only measures anything once it has been given a Metrics object.
+
+/**
+ * <h2>Metrics collects the timing of the game loop and the View.</h2>
+ * <p>The game thread, the JavaFX thread and any other thread record into the histograms
+ * without locks. The tick rate is measured over (roughly) one second at a time.</p>
+ */
+public class Metrics implements MetricsMBean
+{
+    private static final String DOMAIN = "breakout";
+    private static final long WINDOW   = 1_000_000_000L;  // Tick rate measuring time (ns)
+
+    private final Model model;
+    private final Histogram updateTimes = new Histogram();
+    private final Histogram drawTimes   = new Histogram();
+    private final Histogram frameLag    = new Histogram();
+    private final Histogram monitorWait = new Histogram();
+    private final Histogram inputLatency = new Histogram();
+
+    private long windowStart = 0;                        // Game thread only
+    private long windowTicks = 0;
+    private volatile double tickRate = 0;                // Updates per second, measured
+
+    /**
+     * @param model   the game being measured
+     */
+    public Metrics( Model model )
+    {
+        this.model = model;
+    }
+
+    public Histogram getUpdateTimes() { return updateTimes; }
+    public Histogram getDrawTimes()   { return drawTimes; }
+    public Histogram getFrameLag()    { return frameLag; }
+    public Histogram getMonitorWait() { return monitorWait; }
+    public Histogram getInputLatency(){ return inputLatency; }
+
+    /**
+     * Record one update. Game thread only.
+     * @param start   when the update started (System.nanoTime)
+     * @param end     when it finished
+     */
+    void updated( long start, long end )
+    {
+        updateTimes.record(end - start);
+        windowTicks++;
+        if (windowStart == 0)
+        {
+            windowStart = end;
+            windowTicks = 0;
+        }
+        else if (end - windowStart >= WINDOW)
+        {
+            tickRate    = windowTicks * 1e9 / (end - windowStart);
+            windowStart = end;
+            windowTicks = 0;
+        }
+    }
+
+    /**
+     * Publish this object and its histograms on the platform MBean server (replacing any from
+     * an earlier game). Errors are reported with Debug, the game carries on without them.
+     */
+    public void register()
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try
+        {
+            register(server, DOMAIN + ":type=Metrics", this);
+            register(server, DOMAIN + ":type=Histogram,name=updateGame",  updateTimes);
+            register(server, DOMAIN + ":type=Histogram,name=drawPicture", drawTimes);
+            register(server, DOMAIN + ":type=Histogram,name=frameLag",    frameLag);
+            register(server, DOMAIN + ":type=Histogram,name=monitorWait", monitorWait);
+            register(server, DOMAIN + ":type=Histogram,name=inputLatency", inputLatency);
+        } catch (JMException e)
+        {
+            Debug.error("Metrics::register: %s", e.getMessage());
+        }
+    }
+
+    private static void register( MBeanServer server, String name, Object bean ) throws JMException
+    {
+        ObjectName on = new ObjectName(name);
+        if (server.isRegistered(on)) server.unregisterMBean(on);
+        server.registerMBean(bean, on);
+    }
+
+    public int    getTargetTickRate()    { return model.tickRate; }     // (not locked - see monitorWait)
+    public double getTickRate()          { return tickRate; }
+    public long   getTicks()             { return model.getTickStats().getTicks(); }
+    public long   getDroppedTicks()      { return model.getTickStats().getDropped(); }
+    public double getMeanJitterMicros()  { return model.getTickStats().getMeanJitterNanos() / 1e3; }
+    public double getMaxJitterMicros()   { return model.getTickStats().getMaxJitterNanos() / 1e3; }
+    public double getDriftMillis()       { return model.getTickStats().getDriftNanos() / 1e6; }
+    public long   getFramesPublished()   { return model.getFramesPublished(); }
+    public long   getFramesSkipped()     { return model.getFramesSkipped(); }
+    public long   getLogMessagesDropped(){ return Debug.getDropped(); }
+
+    public void reset()
+    {
+        updateTimes.reset();
+        drawTimes.reset();
+        frameLag.reset();
+        monitorWait.reset();
+        inputLatency.reset();
+    }
+}
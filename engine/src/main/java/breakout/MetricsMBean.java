@@ -0,0 +1,26 @@
+package breakout;
+
+// What the game loop shows in jconsole (MBeans tab, breakout:type=Metrics).
+// The time histograms are separate MBeans (breakout:type=Histogram).
+
+/**
+ * <h2>MetricsMBean is the JMX view of the game loop.</h2>
+ */
+public interface MetricsMBean
+{
+    int    getTargetTickRate();
+    double getTickRate();
+    long   getTicks();
+    long   getDroppedTicks();
+    double getMeanJitterMicros();
+    double getMaxJitterMicros();
+    double getDriftMillis();
+    long   getFramesPublished();
+    long   getFramesSkipped();
+    long   getLogMessagesDropped();
+
+    /**
+     * Forget the times recorded so far in all the histograms.
+     */
+    void reset();
+}
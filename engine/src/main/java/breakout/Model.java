@@ -0,0 +1,1303 @@
+package breakout;
+
+// The model represents all the actual content and functionality of the game
+// For Breakout, it manages all the game objects that the View needs
+// (the bat, ball, bricks, and the score), provides methods to allow the Controller
+// to move the bat (and a couple of other functions - change the speed or stop 
+// the game), and runs a background process (a 'thread') that moves the ball 
+// at a fixed rate (50 times a second unless changed) and checks for collisions 
+
+// The Model does not use any JavaFX classes, so it can also run 'headless'
+// (with no View at all) as fast as the CPU allows - see runTicks and Headless.java
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * <h1>Model class have all the values of bricks, brick width and height, ball movement and bat
+ * position. </h1>
+ * <p>private final int B and M is the border around the edge of breakout game and height
+ * of menu bar. Inside the model class there are different variables which helps to position 
+ * brick and bat at correct position and when ball hit the wall it detect it hit a wall and need 
+ * to change the position, if the ball hit bottom then user get -200 point as penalty and if ball 
+ * hit the bat then it will change the position to topX or topY. </p>
+ * @param B                  Border around the edge of the panel.
+ * @param M                  Height of menu at the top.
+ * @param BALL_SIZE          Ball size
+ * @param BRICK_WIDTH        Brick width 
+ * @param BRICK_HEIGHT       Brick height 
+ * @param BRICK_SEPARATION   Separate each bricks
+ * @param BRICK_X_OFFSET     To get X axis for bricks
+ * @param BAT_MOVE           Whenever user keypress bat move a fixed distance
+ * @param BALL_MOVE          Units to move the ball
+ * @param HIT_BRICK          Score when the ball hit brick
+ * @param HIT_BOTTOM         Penalty score when the ball hit bottom
+ */
+public class Model 
+{
+    
+    // First,a collection of useful values for calculating sizes and layouts etc.
+    private final int B                 = 6;      // Border round the edge of the panel
+    private final int M                 = 40;     // Height of menu bar space at the top
+
+    // (the values which can be tuned come from a GameConfig - see the constructor)
+    private int BALL_SIZE         = 30;     // Ball size
+    private int BRICK_WIDTH       = 50;     // Brick width
+    private int BRICK_HEIGHT      = 30;      // Brick height
+    private int BRICK_SEPARATION  = 2;       // Gap between each bricks 
+    private int BRICK_X_OFFSET    = 10;      // Brick x axis
+    private int BRICK_ROWS        = 4;       // Rows of bricks in the wall
+    private int BRICKS_PER_ROW    = 11;      // Bricks in each row (if they fit)
+    private int WALL_TOP          = 100;     // how far down the screen the wall starts
+    
+
+    public int BAT_MOVE       = 5;      // Distance to move bat on each moveBat step
+    public int BAT_SPEED      = 12;     // Distance the bat moves on each update while a key is held
+    public int BALL_MOVE      = 4;      // Units to move the ball on each step
+    public int FAST_MOVE      = 8;      // Units to move the ball on each step in fast mode
+    public int BAT_ANGLE      = 100;    // How much the bat steers the ball (see GameConfig)
+    private final int MAX_CONTACTS = 8;  // Most bounces the ball can make in one step
+    private final int MAX_HITS     = 16; // Most bricks one ball can hit in one step
+    private final int PARALLEL_MIN = 256; // Move the balls on several threads if there are this many
+
+    private int HIT_BRICK            = 50;      // Score for hitting a brick
+    private int HIT_BOTTOM           = -200;    // Score (penalty) for hitting the bottom of 
+                                                // the screen
+
+    // Whoever wants to be told when the model changes (usually the View).
+    // This can be left as null to run the game without any display.
+    ModelListener listener;
+
+    // If not null, every input (bat move, speed change ...) is recorded here
+    // with the update number, so the game can be replayed (see Replay.java)
+    private InputLog inputLog;
+    // The bat keys held down - written by the Controller, read once per update
+    private final InputState input = new InputState();
+    private int loggedKeys = 0;                  // Keys in the input log at the moment
+    // Everything else the player does (speed, stop, more balls, single bat
+    // steps) - sent by any thread, run by the game thread at the start of the
+    // next update, so the sender never waits for the model (see CommandQueue)
+    private final CommandQueue commands;
+    // Timing measurements (see Metrics) - nothing is measured if this is null
+    private volatile Metrics metrics;
+
+    // The game 'model' - these represent the state of the game
+    // and are used by the View to display it
+    public BallStore balls;                      // The balls (usually just one)
+    public BrickStore bricks;                    // The bricks
+    private BrickGrid brickGrid;                 // Finds the bricks near a ball
+    private LevelFile level;                     // The level to play (null - the normal wall)
+    public GameObj bat;                          // The bat
+    public int score = 0;                        // The score
+    int bottomCount = 0;                         // Times a ball has hit the bottom
+    volatile long tick = 0;                      // Number of updates since the game started (read
+                                                 // without the lock - see getTick)
+    private long tickTime;                       // Planned time (System.nanoTime) of the latest update
+
+    // where the bat was at the start of the latest update, so the View can
+    // draw it part of the way between two updates (see Frame - the balls
+    // remember their own previous positions)
+    int prevBatX, prevBatY;
+
+    // Working space for moving the balls. The balls are split into chunks
+    // which can be moved on different threads at the same time, and each
+    // chunk has its own Sweep and grid Result. Bricks hit by each ball are
+    // only noted while the balls move (hitBricks, hitCount, bottomHits) and
+    // are removed afterwards, one ball at a time in ball order - so if two
+    // balls hit the same brick in the same step, the lower numbered ball
+    // scores it, and the result is the same however the threads ran. Only
+    // chunk 0 is made up front - the others are made the first time there are
+    // enough balls to split up, so the many small games a GameServer runs
+    // don't each carry a set for every thread
+    private final int CHUNKS = 4 * Runtime.getRuntime().availableProcessors();
+    private final Sweep[] sweeps = new Sweep[CHUNKS];
+    private final BrickGrid.Result[] near = new BrickGrid.Result[CHUNKS];
+    private final long[] scanned = new long[CHUNKS];   // bricks looked at by each chunk
+    private long bricksScanned = 0;              // bricks looked at in the latest update
+    private int[] hitBricks  = new int[0];       // MAX_HITS bricks for each ball
+    private int[] hitCount   = new int[0];       // number of bricks hit by each ball
+    private int[] bottomHits = new int[0];       // times each ball hit the bottom
+
+    // Snapshots of the game for the View - the View draws these without
+    // locking the model (see Frame and FrameBuffer)
+    private final FrameBuffer frames = new FrameBuffer();
+
+    // The latest checkpoint - a Snapshot of the game taken every checkpointTicks
+    // updates (0 - never), which retry() goes back to. The buffer is made once
+    // and written over each time, so taking a checkpoint makes no garbage
+    private int checkpointTicks = 0;
+    private ByteBuffer checkpoint;               // (null until the first checkpoint)
+    private boolean hasCheckpoint = false;
+    // The history of the last minute or so, for rewinding (null - none, see Rewind)
+    private Rewind rewind;
+
+    // variables that control the game 
+    volatile int tickRate = 50;                  // Updates per second (the game speed - read without
+                                                 // the lock, see getTickRate)
+    private final int MAX_CATCH_UP = 5;          // Most updates to run in a row to catch up
+    private final TickStats tickStats = new TickStats();  // How well the loop keeps time
+    volatile GameState gameState = GameState.RUNNING;  // FINISHED ends the game loop
+    public boolean fast = false;        // Set true to make the ball go faster
+
+    // initialisation parameters for the model
+    private final int width;                   // Width of game
+    private final int height;                  // Height of game
+
+    /**
+     * This method help how big the game window is. The game uses the normal gameplay values.
+     */
+    // CONSTRUCTOR - needs to know how big the window will be
+    public Model( int w, int h )
+    {
+        this(w, h, new GameConfig());
+    }
+
+    /**
+     * This method help how big the game window is, and takes the gameplay values (sizes, speeds
+     * and scores) from a GameConfig.
+     * @param config   the gameplay values
+     */
+    // CONSTRUCTOR - needs to know how big the window will be, and the gameplay values
+    public Model( int w, int h, GameConfig config )
+    {
+        Debug.trace("Model::<constructor>");  
+        width = w; 
+        height = h;
+        BALL_SIZE   = config.BALL_SIZE;
+        BRICK_WIDTH = config.BRICK_WIDTH;
+        BAT_MOVE    = config.BAT_MOVE;
+        BAT_SPEED   = config.BAT_SPEED;
+        BALL_MOVE   = config.BALL_MOVE;
+        FAST_MOVE   = config.FAST_MOVE;
+        BAT_ANGLE   = config.BAT_ANGLE;
+        HIT_BRICK   = config.HIT_BRICK;
+        HIT_BOTTOM  = config.HIT_BOTTOM;
+        BRICK_ROWS  = config.BRICK_ROWS;
+        BRICKS_PER_ROW = config.BRICKS_PER_ROW;
+        commands    = new CommandQueue(config.COMMANDS);
+        sweeps[0] = new Sweep();
+        near[0]   = new BrickGrid.Result();
+    }
+
+    
+    // Animating the game
+    // The game is animated by using a 'thread'. Threads allow the program to do 
+    // two (or more) things at the same time. In this case the main program is
+    // doing the usual thing (View waits for input, sends it to Controller,
+    // Controller sends to Model, Model updates), but a second thread runs in 
+    // a loop, updating the position of the ball, checking if it hits anything
+    // (and changing direction if it does) and then telling the View the Model 
+    // changed.
+    
+    // When we use more than one thread, we have to take care that they don't
+    // interfere with each other (for example, one thread changing the value of 
+    // a variable at the same time the other is reading it). We do this by 
+    // SYNCHRONIZING methods. For any object, only one synchronized method can
+    // be running at a time - if another thread tries to run the same or another
+    // synchronized method on the same object, it will stop and wait for the
+    // first one to finish.
+
+    /**
+     * This method start the game, initialiseGame() which contain all the object we needed to 
+     * run the game and it creates a thread to run runGame.
+     */
+    // Start the animation thread
+    public void startGame()
+    {
+        initialiseGame();                           // set the initial game state
+        Thread t = new Thread( this::runGame );     // create a thread running the runGame method
+        t.setDaemon(true);                          // Tell system this thread can die when it finishes
+        t.start();                                  // Start the thread running
+    }   
+
+    /**
+     * This method reset everything inside the game and start from the begining if we restart
+     * the game. Ball and bat size and width should initialise in this method also the colour of the object. In order
+     * get different layer of bricks we have to use for loop inside a for loop. First for loop 
+     * will cover how many columns we need, inside that for loop we create another for loop 
+     * which initialise how many rows needed. 
+     * @param balls           create one ball, with size, X and Y axis and colour
+     * @param bat             create object size, X and Y axis, height and width, and colour
+     * @param bricks          create BrickStore
+     * @param BRICK_COLUMN    how many columns needed
+     * @param NUM_BRICK       number of bricks in a row
+     */
+    // Initialise the game - reset the score and create the game objects 
+    public void initialiseGame()
+    {       
+        score = 0;
+        tick  = 0;
+        bottomCount = 0;
+        loggedKeys = 0;
+        hasCheckpoint = false;
+        if (rewind != null) rewind.clear();
+        gameState = GameState.RUNNING;
+        balls  = new BallStore(BALL_SIZE, BALL_SIZE, Palette.RED);
+        balls.add(width/2, height/2, Fixed.ONE, Fixed.ONE);
+        bat    = new GameObj(width/2, height - BRICK_HEIGHT*3/2, BRICK_WIDTH*3, 
+            BRICK_HEIGHT/4, Palette.BLACK);
+
+        if (level != null)
+        {
+            // a level from a file - its bricks and grid are used straight from the file
+            bricks    = level.newBricks();
+            brickGrid = level.newGrid();
+        }
+        else
+        {
+            buildWall();
+        }
+        prevBatX  = bat.topX;   prevBatY  = bat.topY;
+        tickTime  = System.nanoTime();
+        if (inputLog != null) inputLog.begin(width, height, commands.size(), checkpointTicks, rewind);
+        frames.publish(this, tick);             // first picture of the new game
+    }
+
+    // Build the normal wall - BRICK_ROWS rows of yellow bricks (as many as fit, up to
+    // BRICKS_PER_ROW in a row) - and its grid
+    private void buildWall()
+    {
+        int BRICK_COLUMN = BRICK_ROWS;          // how many layer of bricks 
+        
+        int NUM_BRICKS = Math.min(BRICKS_PER_ROW, // how many bricks fit on screen
+            (width - BRICK_X_OFFSET) / (BRICK_WIDTH + BRICK_SEPARATION));
+        bricks = new BrickStore(BRICK_COLUMN * NUM_BRICKS);
+        
+    
+        for (int i=0; i < BRICK_COLUMN; i++) {
+            int y = WALL_TOP + (i * (BRICK_HEIGHT + BRICK_SEPARATION));
+            
+            for (int j = 0; j < NUM_BRICKS; j++) {
+                int x = (BRICK_X_OFFSET) + (j * (BRICK_WIDTH + BRICK_SEPARATION));
+            bricks.add(x, y, BRICK_WIDTH, BRICK_HEIGHT, Palette.YELLOW);
+            
+         
+        }
+        
+    }
+
+        // index the bricks in a grid with the same spacing as the wall, so that
+        // updateGame only has to look at the bricks near the ball
+        brickGrid = new BrickGrid(BRICK_X_OFFSET, WALL_TOP,
+            BRICK_WIDTH + BRICK_SEPARATION, BRICK_HEIGHT + BRICK_SEPARATION,
+            width - BRICK_X_OFFSET, height - WALL_TOP);
+        for (int i = 0; i < bricks.size(); i++)
+        {
+            brickGrid.add(i, bricks.x(i), bricks.y(i), bricks.w(i), bricks.h(i));
+        }
+        brickGrid.build();
+    }
+
+
+    /**
+     * runGame method is the main animation loop for the breakout game. It runs updateGame() at a
+     * fixed rate (getTickRate() times a second), however long each update or each sleep takes.
+     * Each update has a planned time; the loop sleeps until the next planned time, then runs all
+     * the updates that are due (up to MAX_CATCH_UP in a row - if it is further behind than that
+     * it gives up on the missed updates) and calls modelChanged() once to refresh the screen.
+     * Fast mode makes the ball move further in each update, it does not update more often.
+     */
+    // The main animation loop
+    public void runGame()
+    {
+        try
+        {
+            Debug.trace("Model::runGame: Game starting"); 
+            // set game running - game will stop if it is set to FINISHED
+            setGameState(GameState.RUNNING);
+            long step  = 1_000_000_000L / tickRate;  // nanoseconds between updates
+            long start = System.nanoTime();
+            long next  = start;                      // planned time of the next update
+            long done  = 0;                          // updates run
+            while (gameState != GameState.FINISHED)
+            {
+                long now = System.nanoTime();
+                if (now < next)
+                {
+                    LockSupport.parkNanos(next - now);  // wait until the next update is due
+                    continue;
+                }
+                // run the updates which are due (the first one is the most late)
+                int ran = 0;
+                while (now >= next && ran < MAX_CATCH_UP)
+                {
+                    scheduledUpdate(next, now);      // update the game state
+                    next += step;
+                    done++;
+                    ran++;
+                }
+                if (now >= next)                     // still behind - skip the missed updates
+                {
+                    long missed = (now - next) / step + 1;
+                    tickStats.drop(missed);
+                    next += missed * step;
+                }
+                // drift - how far the latest update is behind the real time
+                tickStats.setDrift((now - start) - (done - 1) * step);
+                modelChanged();                      // Model changed - refresh screen
+            }
+            Debug.info("Model::runGame: Game finished - %d frames published, %d skipped",
+                frames.getPublished(), frames.getSkipped());
+            Debug.info("Model::runGame: %s", tickStats.toString());
+            Metrics m = metrics;
+            if (m != null)
+            {
+                Debug.info("Model::runGame: updateGame %s", m.getUpdateTimes().toString());
+                Debug.info("Model::runGame: monitorWait %s", m.getMonitorWait().toString());
+            }
+            if (inputLog != null) inputLog.close(tick);
+        } catch (Exception e) 
+        { 
+            Debug.error("Model::runAsSeparateThread error: %s", e.getMessage() );
+        }
+    }
+
+    /**
+     * This method runs one update which was planned for a certain time, and measures how late it
+     * is (see getTickStats). runGame calls it for every update, and so does a GameServer, which
+     * runs many games on a few threads instead of a thread for each game.
+     * @param planned   when the update should have run (System.nanoTime)
+     * @param now       when it is actually run
+     */
+    // Run the update planned for a time
+    public void scheduledUpdate( long planned, long now )
+    {
+        tickStats.tick(now - planned);      // how late this update is
+        tickTime = planned;
+        TickEvent event = FlightRecorder.isInitialized() ? new TickEvent() : null;
+        if (event != null) event.begin();   // (for Flight Recorder - see TickEvent)
+        updateGame();                       // update the game state
+        if (event != null) event.end();
+        if (event != null && event.shouldCommit())
+        {
+            event.tick  = tick;
+            event.balls = balls.size();
+            event.bricksScanned = bricksScanned;
+            event.late  = now - planned;
+            event.commit();
+        }
+    }
+
+    /**
+     * runTicks is the headless version of runGame. It updates the game as fast as the CPU
+     * allows, with no sleeping and no screen refresh, which is useful for regression runs
+     * and for testing bat playing bots.
+     * @param ticks   the maximum number of updates to run
+     * @return        the number of updates actually run (less if the game finished)
+     */
+    // Run the game without a display - no sleeping, no View
+    public long runTicks( long ticks )
+    {
+        long done = 0;
+        while (done < ticks && gameState != GameState.FINISHED)
+        {
+            updateGame();                           // update the game state
+            done++;
+        }
+        return done;
+    }
+
+    /**
+     * This method is used to update the game then only the object in the game feels like moving. Each
+     * ball is moved (see moveBall), then the bricks the balls hit are made invisible and the score is
+     * updated. If there are a lot of balls they are moved on several threads at once; the bricks are
+     * always removed in ball order afterwards, so a brick hit by two balls in the same step is only
+     * scored once, and the result does not depend on how the threads ran.
+     */
+    // updating the game - this happens about 50 times a second to give the impression of movement
+    public void updateGame()
+    {
+        long asked = beforeLock();
+        synchronized (this)
+        {
+            long start = gotLock(asked);
+            update();
+            Metrics m = metrics;
+            if (start != 0 && m != null) m.updated(start, System.nanoTime());
+        }
+    }
+
+    // The work of updateGame (with the model locked)
+    private void update()
+    {
+        tick++;                         // (first - see getTick)
+        runCommands();                  // what the player did since the last update
+        balls.savePositions();
+        prevBatX  = bat.topX;   prevBatY  = bat.topY;
+
+        // the bat keys are looked at once, here, and the bat moves BAT_SPEED
+        // for every update a key is held (so not at the keyboard repeat rate)
+        int keys = input.sample();
+        int held = InputState.held(keys);
+        if (held != loggedKeys)
+        {
+            if (inputLog != null) inputLog.input(tick - 1, InputLog.KEYS, held);
+            loggedKeys = held;
+        }
+        if (held != 0) shiftBat(InputState.direction(held) * BAT_SPEED);
+        if (InputState.pressed(keys) != 0) keysApplied(InputState.pressed(keys));
+        int speed = fast ? FAST_MOVE : BALL_MOVE;
+        int n = balls.size();
+        if (hitCount.length < n)
+        {
+            hitBricks  = new int[balls.x.length * MAX_HITS];
+            hitCount   = new int[balls.x.length];
+            bottomHits = new int[balls.x.length];
+        }
+
+        // move the balls - on several threads if there are a lot of them. While
+        // the balls move nothing else in the model changes
+        if (n < PARALLEL_MIN)
+        {
+            moveBalls(0, n, 0, speed);
+        }
+        else
+        {
+            if (sweeps[CHUNKS - 1] == null)         // (the first time - make the other chunks' space)
+            {
+                for (int c = 1; c < CHUNKS; c++)
+                {
+                    sweeps[c] = new Sweep();
+                    near[c]   = new BrickGrid.Result();
+                }
+            }
+            IntStream.range(0, CHUNKS).parallel().forEach(
+                c -> moveBalls(c * n / CHUNKS, (c + 1) * n / CHUNKS, c, speed));
+        }
+
+        // now remove the bricks which were hit, in ball order
+        for (int i = 0; i < n; i++)
+        {
+            for (int h = 0; h < bottomHits[i]; h++)
+            {
+                addToScore( HIT_BOTTOM );   // score penalty for hitting the bottom of the screen
+                bottomCount++;
+            }
+            for (int h = 0; h < hitCount[i]; h++)
+            {
+                int b = hitBricks[i * MAX_HITS + h];
+                if (!bricks.isLive(b)) continue;    // (already broken by a lower numbered ball)
+                if (rewind != null) rewind.hit(b);
+                if (bricks.hit(b))                  // the brick breaks - it is made invisible
+                {
+                    brickGrid.remove(b, bricks);
+                    addToScore( HIT_BRICK );    // add to score for breaking a brick 
+                }
+            }
+        }
+        bricksScanned = scanned[0];
+        if (n >= PARALLEL_MIN) for (int c = 1; c < CHUNKS; c++) bricksScanned += scanned[c];
+        if (checkpointTicks > 0 && tick % checkpointTicks == 0) takeCheckpoint();
+        if (rewind != null) rewind.record(this);
+        if (inputLog != null) inputLog.tick(tick, stateHash());
+    }
+
+    /**
+     * This method writes a Snapshot of the whole game into a buffer, at its position. The
+     * buffer can be used again and again (it is never kept by the model).
+     * @param out     where to write the snapshot
+     * @return        the number of bytes written
+     * @throws java.nio.BufferOverflowException if the buffer is too small - see snapshotSize
+     */
+    // save the game state
+    public int snapshot( ByteBuffer out )
+    {
+        long asked = beforeLock();
+        synchronized (this)
+        {
+            gotLock(asked);
+            return Snapshot.encode(this, brickGrid, out);
+        }
+    }
+
+    /**
+     * This method return the most bytes a snapshot of the game can take at the moment.
+     */
+    // return the size of buffer a snapshot needs
+    public synchronized int snapshotSize()
+    {
+        return Snapshot.maxSize(this, bricks, brickGrid);
+    }
+
+    /**
+     * This method puts the game back as it was when a snapshot was taken (see snapshot). The
+     * game must be on the same level. The model's own objects are filled in, so the View
+     * carries on drawing them as before. The update number goes back too, so while an input
+     * log is recorded use retry() instead.
+     * @param in      the snapshot, at the buffer's position
+     * @throws IllegalStateException if it is not a snapshot of a game on this level, or it is
+     *                               cut short or corrupt (the game is left as it was)
+     */
+    // restore the game state
+    public synchronized void restore( ByteBuffer in )
+    {
+        Snapshot.decode(this, brickGrid, in);
+    }
+
+    // Take a checkpoint (model locked) - the buffer is only made bigger when a
+    // snapshot no longer fits (when more balls are added)
+    private void takeCheckpoint()
+    {
+        int size = Snapshot.maxSize(this, bricks, brickGrid);
+        if (checkpoint == null || checkpoint.capacity() < size)
+        {
+            checkpoint = ByteBuffer.allocateDirect(size + size / 2);
+        }
+        checkpoint.clear();
+        Snapshot.encode(this, brickGrid, checkpoint);
+        checkpoint.flip();
+        hasCheckpoint = true;
+    }
+
+    /**
+     * This method sets how often a checkpoint is taken - a snapshot of the game which retry()
+     * goes back to. Call it before the game starts.
+     * @param ticks   updates between checkpoints (0 - no checkpoints)
+     */
+    // Take a checkpoint every so many updates
+    public synchronized void setCheckpointTicks( int ticks )
+    {
+        checkpointTicks = ticks;
+    }
+
+    /**
+     * This method return a copy of the latest checkpoint (for saving the game - see
+     * Snapshot.write), or null if none has been taken yet.
+     */
+    // return the latest checkpoint
+    public ByteBuffer getCheckpoint()
+    {
+        long asked = beforeLock();
+        synchronized (this)
+        {
+            gotLock(asked);
+            if (!hasCheckpoint) return null;
+            ByteBuffer copy = ByteBuffer.allocate(checkpoint.limit());
+            copy.put(checkpoint.duplicate()).flip();
+            return copy;
+        }
+    }
+
+    /**
+     * This method makes a snapshot (usually one saved by an earlier game) the latest checkpoint,
+     * so retry() goes back to it - which is how a saved game is carried on. It is not checked
+     * until retry() restores it.
+     * @param snapshot   the snapshot (from its position to its limit)
+     */
+    // make a snapshot the latest checkpoint
+    public synchronized void setCheckpoint( ByteBuffer snapshot )
+    {
+        checkpoint = ByteBuffer.allocateDirect(snapshot.remaining());
+        checkpoint.put(snapshot.duplicate()).flip();
+        hasCheckpoint = true;
+    }
+
+    /**
+     * This method keeps a history of the game (see Rewind), so rewind() can go back over it.
+     * Call it before the game starts.
+     * @param r       the history (null - none)
+     */
+    // Keep a history of the game for rewinding
+    public synchronized void setRewind( Rewind r )
+    {
+        rewind = r;
+    }
+
+    /**
+     * This method return the history of the game, or null if none is kept.
+     */
+    // return the history
+    public synchronized Rewind getRewind()
+    {
+        return rewind;
+    }
+
+    /**
+     * This method takes the game back a number of updates, as far as its history goes (see
+     * setRewind). What happened after that point is forgotten. The game goes back at the start
+     * of the next update; the update number carries on counting, as for retry().
+     * @param ticks   how many updates to go back
+     */
+    // go back in time
+    public void rewind( int ticks )
+    {
+        send(InputLog.REWIND, ticks);
+    }
+
+    /**
+     * This method takes the game back to the latest checkpoint ('retry from here'). If there is
+     * no checkpoint nothing happens. The game goes back at the start of the next update; the
+     * update number carries on counting (so the input log, and a replay of it, keep going).
+     */
+    // go back to the latest checkpoint
+    public void retry()
+    {
+        send(InputLog.RESTORE, 0);
+    }
+
+    /**
+     * This method works out a hash of the whole game state - the update number, score, bat, speed,
+     * every ball and which bricks have been hit. Two games with the same hash after every update
+     * are (almost certainly) the same game, which is how replays are checked.
+     */
+    // return a hash of the game state
+    public synchronized long stateHash()
+    {
+        long h = InputLog.chain(tick, score);
+        h = InputLog.chain(h, ((long) bat.topX << 32) ^ bat.topY);
+        h = InputLog.chain(h, fast ? 1 : 0);
+        for (int i = 0; i < balls.size(); i++)
+        {
+            h = InputLog.chain(h, ((long) balls.x[i] << 48) ^ ((long) balls.y[i] << 32)
+                                   ^ ((long) balls.subX[i] << 16) ^ balls.subY[i]);
+            h = InputLog.chain(h, ((long) balls.dirX[i] << 32) ^ (balls.dirY[i] & 0xFFFFFFFFL));
+        }
+        return InputLog.chain(h, bricks.liveHash());
+    }
+
+    /**
+     * This method starts (or with null, stops) recording the player's inputs. Set it before
+     * startGame, so the log starts at the beginning of the game.
+     * @param log     where to record the inputs
+     */
+    // record the inputs to a log
+    public synchronized void setInputLog( InputLog log )
+    {
+        inputLog = log;
+    }
+
+    /**
+     * This method starts (or with null, stops) measuring the game (see Metrics) - how long each
+     * update takes and how long callers wait to lock the model.
+     * @param m       where to record the measurements
+     */
+    // measure the game
+    public void setMetrics( Metrics m )
+    {
+        metrics = m;
+    }
+
+    /**
+     * This method return the Metrics the game is measured with, or null if it is not measured.
+     */
+    // return the measurements
+    public Metrics getMetrics()
+    {
+        return metrics;
+    }
+
+    // Call just before locking the model. Returns the time (or 0 if nothing is measured).
+    // The game thread's updateGame and the getters other threads call (getScore,
+    // getCheckpoint ...) lock the model this way, so monitorWait shows how long each of
+    // them waited - the getters for an update to finish, the game for a getter or save
+    private long beforeLock()
+    {
+        return metrics != null ? System.nanoTime() : 0;
+    }
+
+    // Call as soon as the model is locked, with the time from beforeLock. Records how long
+    // the lock took and returns the time now (or 0 if nothing is measured)
+    private long gotLock( long asked )
+    {
+        Metrics m = metrics;
+        if (asked == 0 || m == null) return 0;
+        long now = System.nanoTime();
+        m.getMonitorWait().record(now - asked);
+        return now;
+    }
+
+    /**
+     * This method return the number of updates since the game started. It doesn't lock the
+     * model (a NetServer asks for it as every command arrives, and mustn't wait for an update):
+     * the number goes up at the very start of an update, before the commands sent to the model
+     * are run and the keys are looked at, so an update with a higher number than this sees
+     * any command sent, and anything done to the input, before it was asked for.
+     */
+    // return the update number
+    public long getTick()
+    {
+        return(tick);
+    }
+
+    // Move balls from (inclusive) to to (exclusive), using the working space of chunk c
+    private void moveBalls( int from, int to, int c, int speed )
+    {
+        long s = 0;
+        for (int i = from; i < to; i++) s += moveBall(i, speed, sweeps[c], near[c]);
+        scanned[c] = s;
+    }
+
+    /**
+     * This method moves one ball for one update. The ball does not just jump to its new position -
+     * we sweep it along its path and find the first thing it touches (side wall, top, bottom, bat or
+     * a visible brick), move it there, bounce it off the side it touched, and carry on with the rest
+     * of the step. So the ball can move a long way in one step without going through bricks or the
+     * bat. The bricks it hits are only noted in hitBricks (updateGame removes them), so this method
+     * can run for different balls on different threads at the same time.
+     * <p>All the sums are in 16.16 fixed point (see Fixed) - there is no floating point here at
+     * all, so the game is exactly the same on every machine. Where the ball lands on the top of
+     * the bat sets the angle it goes back up at (see BAT_ANGLE).</p>
+     * @param i          the ball to move
+     * @param speed      units to move in the step
+     * @param sweep      swept collision test to use
+     * @param found      grid query result to use
+     * @param vx, vy     ball velocity (fixed point units per step)
+     * @param left       how much of the step is still to go (fixed point)
+     * @return           the number of bricks looked at (found by the grid)
+     */
+    private int moveBall( int i, int speed, Sweep sweep, BrickGrid.Result found )
+    {
+        BallStore ball = balls;
+        int bw = ball.width, bh = ball.height;
+        int hitBase = i * MAX_HITS;
+        hitCount[i]   = 0;
+        bottomHits[i] = 0;
+        int looked    = 0;
+
+        // if the bat has been moved into the ball, bounce the ball up
+        if (ball.hitBy(i, bat) && ball.dirY[i] > 0) ball.dirY[i] = -ball.dirY[i];
+
+        int left = Fixed.ONE;                               // the whole step is still to go
+        for (int contact = 0; contact < MAX_CONTACTS && left > 0; contact++)
+        {
+            int vx = ball.dirX[i] * speed;                  // (the ball knows which direction
+            int vy = ball.dirY[i] * speed;                  //  it is moving in)
+            long x = Fixed.of(ball.x[i], ball.subX[i]);     // the current ball possition (top left corner)
+            long y = Fixed.of(ball.y[i], ball.subY[i]);
+
+            // find the first thing the ball touches in the rest of the step
+            int     first  = left;                          // time of the first contact
+            int     face   = 0;                             // side(s) touched at that time
+            boolean bottom = false;                         // the first contact is the bottom
+            String  what   = CollisionEvent.WALL;           // what it is (for Flight Recorder)
+
+            // Deal with possible edge of board hit - the walls are lines the ball can't cross
+            long t;
+            if (vx > 0 && (t = Math.max(0, Fixed.div(Fixed.of(width - B - bw) - x, vx))) <= first)
+            { face = t < first ? Sweep.X : face | Sweep.X;  first = (int) t; }
+            if (vx < 0 && (t = Math.max(0, Fixed.div(x - Fixed.of(B), -vx))) <= first)
+            { face = t < first ? Sweep.X : face | Sweep.X;  first = (int) t; }
+            if (vy < 0 && (t = Math.max(0, Fixed.div(y - Fixed.of(M), -vy))) <= first)
+            { face = t < first ? Sweep.Y : face | Sweep.Y;  first = (int) t; }
+            if (vy > 0 && (t = Math.max(0, Fixed.div(Fixed.of(height - B - bh) - y, vy))) <= first)
+            { face = t < first ? Sweep.Y : face | Sweep.Y;  first = (int) t;  bottom = true;  what = CollisionEvent.BOTTOM; }
+
+            // check whether ball will hit the bat
+            if (sweep.test(x, y, bw, bh, vx, vy,
+                           bat.topX, bat.topY, bat.width, bat.height, first))
+            {
+                if (sweep.time < first) { face = 0;  bottom = false; }
+                face |= sweep.face;  first = sweep.time;  what = CollisionEvent.BAT;
+            }
+
+            // check whether ball will hit a (visible) brick
+            // *[3]******************************************************[3]*
+            // * Fill in code to check if a visible brick has been hit      *
+            // * The ball has no effect on an invisible brick               *
+            // * If a brick has been hit, change its 'visible' setting to   *
+            // * false so that it will 'disappear'                          * 
+            // **************************************************************
+            // only the bricks in the grid cells along the ball's path need to be checked
+            long ex = x + Fixed.mul(vx, first), ey = y + Fixed.mul(vy, first);
+            int qx = Fixed.floor(Math.min(x, ex)), qy = Fixed.floor(Math.min(y, ey));
+            int count = brickGrid.query(qx, qy,
+                Fixed.ceil(Math.max(x, ex)) + bw - qx, Fixed.ceil(Math.max(y, ey)) + bh - qy, found);
+            looked += count;
+            int hits = hitCount[i];                         // bricks hit at time 'first' go after this
+            int firstHit = hits;
+            for (int k = 0; k < count; k++)
+            {
+                int b = found.found[k];
+                if (bricks.isLive(b) && !hitBefore(hitBase, firstHit, b) &&
+                    sweep.test(x, y, bw, bh, vx, vy,
+                               bricks.x(b), bricks.y(b), bricks.w(b), bricks.h(b), first))
+                {
+                    if (sweep.time < first) { face = 0;  bottom = false;  hits = firstHit; }
+                    face |= sweep.face;  first = sweep.time;  what = CollisionEvent.BRICK;
+                    if (hits < MAX_HITS) hitBricks[hitBase + hits++] = b;
+                }
+            }
+
+            // move the ball to the first contact (or to the end of the step)
+            x += Fixed.mul(vx, first);
+            y += Fixed.mul(vy, first);
+            ball.x[i] = Fixed.floor(x);  ball.subX[i] = Fixed.frac(x);
+            ball.y[i] = Fixed.floor(y);  ball.subY[i] = Fixed.frac(y);
+            left -= first;
+            if (face == 0) break;                           // touched nothing - step finished
+            if (FlightRecorder.isInitialized())
+            {
+                CollisionEvent.emit(tick, what, i, what == CollisionEvent.BRICK && firstHit < MAX_HITS ?
+                    hitBricks[hitBase + firstHit] : -1, ball.x[i], ball.y[i]);
+            }
+
+            // bounce off the side(s) touched
+            if ((face & Sweep.X) != 0) ball.dirX[i] = -ball.dirX[i];
+            if ((face & Sweep.Y) != 0) ball.dirY[i] = -ball.dirY[i];
+            if (what == CollisionEvent.BAT && (face & Sweep.Y) != 0 && ball.dirY[i] < 0 && BAT_ANGLE != 0)
+            {
+                ball.dirX[i] = batAngle(x);                 // off the top of the bat - steered
+            }
+            if (bottom) bottomHits[i]++;
+            hitCount[i] = hits;
+        }
+        return looked;
+    }
+
+    // The X direction of a ball (at fixed point x) bouncing off the top of the bat: straight up
+    // from the middle of the bat, and further across (up to BAT_ANGLE / 100 across for each
+    // one up) the nearer the ball is to an end
+    private int batAngle( long x )
+    {
+        int  half   = (bat.width + balls.width) / 2;        // furthest the middles can be apart
+        long offset = x + Fixed.of(balls.width) / 2 - Fixed.of(bat.topX) - Fixed.of(bat.width) / 2;
+        long max    = (long) BAT_ANGLE * Fixed.ONE / 100;
+        return (int) Math.max(-max, Math.min(max, offset * BAT_ANGLE / (100L * half)));
+    }
+
+    // true if ball hit brick b earlier in this step (it is still visible until
+    // updateGame removes it, but this ball must not hit it again)
+    private boolean hitBefore( int hitBase, int hits, int b )
+    {
+        for (int h = 0; h < hits; h++)
+        {
+            if (hitBricks[hitBase + h] == b) return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method adds more balls (a 'ball storm'). The new balls start just above the bat, spread
+     * along it, moving up and alternately left and right.
+     * @param count     how many balls to add
+     */
+    // add more balls
+    public void addBalls( int count )
+    {
+        send(InputLog.ADD_BALLS, count);
+    }
+
+    /**
+     * This method is used to tell the listener (normally the View) whenever the Model get updated,
+     * then it will update ball, bricks, bat and score. First it publishes a new Frame (a snapshot
+     * of the game) which the View can draw without locking the model. If there is no listener
+     * nothing else happens.
+     */
+    // This is how the Model talks to the View
+    // Whenever the Model changes, this method publishes a new frame and tells
+    // the listener (if there is one). The View does not need to be told - it
+    // checks for a new frame once per screen refresh (see View.start).
+    // Only the animation thread may call this (it writes the frame buffer)
+    public synchronized void modelChanged()
+    {
+        frames.publish(this, tick);
+        if (listener != null) listener.modelChanged(this);
+    }
+
+    /**
+     * This method return the latest published Frame. It does not lock the model, but it must
+     * only be called by the thread that draws the game (the JavaFX thread), because the frame
+     * it returns stays in use until that thread asks for the next one.
+     */
+    // return the latest snapshot of the game - drawing thread only
+    public Frame getFrame()
+    {
+        return frames.latest();
+    }
+
+    /**
+     * This method tells the View if there is a frame it has not drawn yet. It does not lock the model.
+     */
+    // return true if a new frame has been published since the last getFrame
+    public boolean hasNewFrame()
+    {
+        return frames.hasNew();
+    }
+
+    /**
+     * This method return how many frames were never drawn because a newer frame replaced them
+     * first (for example in fast mode, or when the JavaFX thread is busy).
+     */
+    // return the number of skipped (coalesced) frames
+    public long getFramesSkipped()
+    {
+        return frames.getSkipped();
+    }
+
+    /**
+     * This method return how many frames have been published.
+     */
+    // return the number of published frames
+    public long getFramesPublished()
+    {
+        return frames.getPublished();
+    }
+    
+    
+    // Methods for accessing and updating values
+    // these are all synchronized (or only send a command, see CommandQueue) so
+    // that the can be called by the main thread or the animation thread safely
+
+    /**
+     * This method change game state to running or finished. setGameState is also called from controller to
+     * stop the game. The state changes at the start of the next update.
+     * @param value       to change game state
+     */
+    // Change game state - set to RUNNING or FINISHED
+    public void setGameState(GameState value)
+    {  
+        send(InputLog.STATE, value == GameState.FINISHED ? 1 : 0);
+    }
+
+    /**
+     * This method return game running state. It does not lock the model.
+     */
+    // Return game running state
+    public GameState getGameState()
+    {  
+        return gameState;
+    }
+
+    /**
+     * This method is used to change speed of the game. It use boolean value, false is for normal speed and
+     * true is for fast. This method is called on controller class to use different speed for ball. The
+     * game still updates 50 times a second, but the ball moves further on each update. The speed
+     * changes at the start of the next update.
+     * @param value       to change ball movement from normal to fast
+     */
+    // Change game speed - false is normal speed, true is fast
+    public void setFast(Boolean value)
+    {  
+        send(InputLog.FAST, value ? 1 : 0);
+    }
+
+    /**
+     * This is a boolean value which is used by updateGame to choose how far the ball moves in
+     * each step (FAST_MOVE or BALL_MOVE).
+     */
+    // Return game speed - false is normal speed, true is fast
+    public Boolean getFast()
+    {
+        long asked = beforeLock();
+        synchronized (this)
+        {
+            gotLock(asked);
+            return(fast);
+        }
+    }
+
+    /**
+     * This method changes how many times a second the game is updated. It must be called before
+     * the game starts. The ball moves BALL_MOVE units on each update, so this also changes how
+     * fast the game plays - the screen refresh rate does not (the View draws the ball and bat
+     * part of the way between two updates).
+     * @param hz      updates per second
+     */
+    // Change the number of updates per second (before startGame)
+    public synchronized void setTickRate(int hz)
+    {
+        tickRate = hz;
+    }
+
+    /**
+     * This method return the number of updates per second. It doesn't lock the model (it is
+     * only changed before the game starts), so the JavaFX thread can ask for it without waiting
+     * for an update.
+     */
+    // Return the number of updates per second
+    public int getTickRate()
+    {
+        return(tickRate);
+    }
+
+    /**
+     * This method return the timing measurements of the game loop (jitter and drift).
+     */
+    // Return the game loop timing measurements
+    public TickStats getTickStats()
+    {
+        return(tickStats);
+    }
+
+    /**
+     * This method return the planned time (System.nanoTime) of the latest update.
+     */
+    // Return the planned time of the latest update
+    long getTickTime()
+    {
+        return(tickTime);
+    }
+
+    /**
+     * This method return the bat object 
+     */
+    // Return bat object
+    public synchronized GameObj getBat()
+    {
+        return(bat);
+    }
+
+    /**
+     * This method return the balls using getBalls()
+     */
+    // return the balls
+    public synchronized BallStore getBalls()
+    {
+        return(balls);
+    }
+
+    /**
+     * This method return the bricks. They are kept in a BrickStore (arrays of positions, sizes
+     * and colours) which is created in intitialiseGame() method.
+     */
+    // return bricks
+    public synchronized BrickStore getBricks()
+    {
+        return(bricks);
+    }
+
+    /**
+     * This method tells if every brick has been broken (apart from any which can never be
+     * broken). BrickStore keeps count of the visible bricks, so this does not need to look at
+     * the bricks at all.
+     */
+    // return true when the level is cleared
+    public synchronized boolean isCleared()
+    {
+        return(bricks.liveCount() == bricks.solidCount());
+    }
+
+    /**
+     * This method return the width of the game - the level, which can be bigger than the window.
+     */
+    // Return the width of the game
+    public int getWidth()
+    {
+        return(width);
+    }
+
+    /**
+     * This method return the height of the game - the level, which can be bigger than the window.
+     */
+    // Return the height of the game
+    public int getHeight()
+    {
+        return(height);
+    }
+
+    // Return the brick grid (for Frame - only its queryAll may be used by other threads)
+    BrickGrid getBrickGrid()
+    {
+        return(brickGrid);
+    }
+
+    /**
+     * This method sets the level (a LevelFile) which initialiseGame() builds the game from,
+     * instead of the normal wall of BRICK_ROWS rows of yellow bricks. Call it before the game
+     * starts. null goes back to the normal wall.
+     * @param file     the level
+     */
+    // Play a level from a file
+    public synchronized void setLevel(LevelFile file)
+    {
+        level = file;
+    }
+
+    /**
+     * This method return the current score when the ball hits a brick. 
+     */
+    // return score
+    public int getScore()
+    {
+        long asked = beforeLock();
+        synchronized (this)
+        {
+            gotLock(asked);
+            return(score);
+        }
+    }
+
+    /**
+     * This method return how many times a ball has hit the bottom of the screen.
+     */
+    // return the number of bottom hits
+    public int getBottomHits()
+    {
+        long asked = beforeLock();
+        synchronized (this)
+        {
+            gotLock(asked);
+            return(bottomCount);
+        }
+    }
+
+    /**
+     * This method update the score when the ball hit another brick. It keeps updating whenever
+     * the ball hits the bricks. 
+     * @param n       update the score value 
+     */
+     // update the score
+    public synchronized void addToScore(int n)    
+    {
+        score += n;        
+    }
+
+    /**
+     * This method helps the user to move the bat to the left and right. The bat will go off the
+     * screen if the user move towards the side of the window. In order to prevent it, we use if
+     * and else if statement by creating two more int variables. 
+     * @param direction   to get the direction of the bat
+     * @param MIN_X       to prevent bat going off the screen to the left side
+     * @param MAX_X       to prevent bat going off the screen to the right side
+     */
+    // move the bat one step - -1 is left, +1 is right (at the start of the next update)
+    public void moveBat( int direction )
+    {        
+        send(InputLog.MOVE_BAT, direction);
+    }
+
+    // Queue a command for the game thread. Never waits for the model
+    private void send( int op, int arg )
+    {
+        if (!commands.offer(op, arg, System.nanoTime()))
+        {
+            long dropped = commands.getDropped();
+            if ((dropped & (dropped - 1)) == 0)      // (the 1st, 2nd, 4th, 8th ... time)
+            {
+                Debug.error("Model::send: command queue full - %d commands dropped", dropped);
+            }
+        }
+    }
+
+    // Run the commands sent since the last update, in the order they were
+    // sent, and record them in the input log (game thread, model locked).
+    // No more than a queue full are run in one go, even if more keep arriving
+    // while they run - a replay puts each update's commands in a queue of the
+    // same size, so it must never be given more than that
+    void runCommands()
+    {
+        CommandQueue.Command c;
+        for (int n = 0; n < commands.size() && (c = commands.peek()) != null; n++, commands.remove())
+        {
+            if (inputLog != null) inputLog.input(tick - 1, c.op, c.arg);  // (after the update before)
+            switch (c.op)
+            {
+                case InputLog.MOVE_BAT:
+                    int dist = c.arg * BAT_MOVE;
+                    shiftBat(dist);
+                    Debug.trace( "Model::moveBat: Move bat = %d", dist );  // no String is made unless tracing
+                    break;
+                case InputLog.FAST:
+                    fast = c.arg != 0;
+                    break;
+                case InputLog.STATE:
+                    gameState = c.arg != 0 ? GameState.FINISHED : GameState.RUNNING;
+                    break;
+                case InputLog.ADD_BALLS:
+                    int y = bat.topY - BALL_SIZE - 1;
+                    for (int k = 0; k < c.arg; k++)
+                    {
+                        int x = bat.topX + (k * 7) % Math.max(1, bat.width - BALL_SIZE);
+                        balls.add(x, y, k % 2 == 0 ? Fixed.ONE : -Fixed.ONE, -Fixed.ONE);
+                    }
+                    break;
+                case InputLog.RESTORE:
+                    if (hasCheckpoint)
+                    {
+                        long now = tick;
+                        try
+                        {
+                            restore(checkpoint.duplicate());
+                        } catch (RuntimeException e)
+                        {
+                            hasCheckpoint = false;   // (a saved game for another level)
+                            Debug.error("Model::retry: can't restore checkpoint - %s", e.getMessage());
+                        }
+                        tick = now;                  // the update number carries on
+                        if (rewind != null) rewind.jumped();
+                    }
+                    break;
+                case InputLog.REWIND:
+                    if (rewind != null)
+                    {
+                        int back = rewind.seek(this, c.arg);
+                        rewind.truncate(this, back);
+                    }
+                    break;
+            }
+            if (FlightRecorder.isInitialized())
+            {
+                // how long the command waited for the game (see InputEvent)
+                InputEvent.emit(commandName(c.op, c.arg), tick + 1, System.nanoTime() - c.sent);
+            }
+        }
+    }
+
+    // Name of a command for Flight Recorder
+    private static String commandName( int op, int arg )
+    {
+        switch (op)
+        {
+            case InputLog.FAST:      return arg != 0 ? "Fast" : "Normal";
+            case InputLog.STATE:     return arg != 0 ? "Stop" : "Start";
+            case InputLog.ADD_BALLS: return "Balls";
+            case InputLog.RESTORE:   return "Retry";
+            case InputLog.REWIND:    return "Rewind";
+            default:                 return "Bat";
+        }
+    }
+
+    /**
+     * This method return how many commands were thrown away because the game thread was not
+     * taking them (the command queue was full).
+     */
+    // return the number of dropped commands
+    public long getCommandsDropped()
+    {
+        return commands.getDropped();
+    }
+
+    // Move the bat sideways by dist, unless it is already at the edge of the screen
+    private void shiftBat( int dist )
+    {
+        int MIN_X = 10;
+        int MAX_X = width - bat.width - 10;
+
+        if (dist > 0 && bat.getDirX() < MAX_X) {
+            bat.moveX(dist);
+        }
+        else if (dist < 0 && bat.getDirX() > MIN_X) {
+            bat.moveX(dist);
+        }
+    }
+
+    // Measure how long after each newly pressed bat key the bat started to move
+    private void keysApplied( int pressed )
+    {
+        long now = System.nanoTime();
+        for (int key = InputState.LEFT; key <= InputState.RIGHT; key <<= 1)
+        {
+            if ((pressed & key) == 0) continue;
+            long latency = now - input.downTime(key);
+            Metrics m = metrics;
+            if (m != null) m.getInputLatency().record(latency);
+            if (FlightRecorder.isInitialized())
+            {
+                InputEvent.emit(key == InputState.LEFT ? "Left" : "Right", tick, latency);
+            }
+        }
+    }
+
+    /**
+     * This method return the state of the bat keys. The Controller presses and releases them
+     * (without locking the model) and the game moves the bat on each update while one is held.
+     */
+    // return the bat keys
+    public InputState getInput()
+    {
+        return input;
+    }
+}   
+    
\ No newline at end of file
@@ -0,0 +1,18 @@
+package breakout;
+
+// Anything that wants to know when the Model changes (the View, a test
+// harness, a recorder ...) implements this interface. The Model does not
+// know or care what is on the other end, so it can run with no GUI at all.
+
+/**
+ * ModelListener is told by the Model every time the game state changes. The JavaFX View
+ * is one listener, but the Model also runs happily without any listener (headless).
+ */
+public interface ModelListener
+{
+    /**
+     * Called by the Model (on the animation thread) after each update of the game.
+     * @param model   the model that changed
+     */
+    void modelChanged( Model model );
+}
@@ -0,0 +1,286 @@
+package breakout;
+
+// A remote player (see NetServer): sends the commands the Controller would
+// send for the keyboard, and keeps a copy of the game from the frames that
+// come back (see FrameDelta).
+//
+// Every command has a sequence number, and the time it was sent is kept.
+// When a frame says (ACK) it includes a command, the time since that command
+// was sent is the input to frame latency - network, waiting for the next
+// update, the update, and the frame coming back.
+//
+// Usage (a benchmark, all on this machine - the server as well, unless one is given):
+//   java -cp engine/target/classes breakout.NetClient [clients] [seconds] [host:port]
+// connects the clients, each with a bot playing the bat from the frames it
+// gets, and prints the bandwidth each client uses and the latency.
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * <h1>NetClient is one connection to a NetServer.</h1>
+ * <p>The channel is non-blocking: send() never waits, and receive() reads whatever has
+ * arrived and applies the whole frames in it to game. Commands the socket couldn't take are
+ * sent by the next send(), receive() or flush() - register for OP_WRITE while isFlushed() is
+ * false. The buffers are direct and reused.</p>
+ */
+public class NetClient
+{
+    private static final int SENT = 256;            // send times kept (commands waiting for an ACK)
+
+    public final FrameDelta game = new FrameDelta();     // the game, as of the latest frame
+    private final SocketChannel channel;
+    private final Histogram latency;                // command sent to a frame including it (or null)
+    private ByteBuffer in = ByteBuffer.allocateDirect(4096).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(NetServer.MESSAGE * SENT)
+                                             .order(ByteOrder.LITTLE_ENDIAN);
+    private final long[] sentAt = new long[SENT];   // when each command was sent, by sequence number
+    private int  seq = 0;                           // sequence number of the next command
+    private long acked = -1;                        // the latest command a frame has included
+    private long bytesReceived = 0, framesReceived = 0;
+
+    /**
+     * Connect to a server.
+     * @param address   where the server is
+     * @param latency   where to record the input to frame latencies (null - not recorded)
+     */
+    public NetClient( InetSocketAddress address, Histogram latency ) throws IOException
+    {
+        this.latency = latency;
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * @return the channel, to register with a Selector (for reading, and writing while there
+     *         are commands waiting - see isFlushed)
+     */
+    public SocketChannel getChannel()
+    {
+        return channel;
+    }
+
+    /**
+     * Send a command. If the socket can't take it straight away it is kept, and sent by the
+     * next send, receive or flush.
+     * @param op    InputLog.KEYS (arg - the InputState keys held), InputLog.FAST (arg - 1 fast,
+     *              0 normal) or InputLog.STATE (arg 1 - stop the game)
+     * @param arg   see op
+     * @return false if it couldn't be sent - SENT commands are already waiting for the socket
+     *         (the server isn't reading at all). Send it again later: for KEYS, the keys held then
+     */
+    public boolean send( int op, int arg ) throws IOException
+    {
+        if (out.remaining() < NetServer.MESSAGE) flush();
+        if (out.remaining() < NetServer.MESSAGE) return false;
+        sentAt[seq & (SENT - 1)] = System.nanoTime();
+        out.put((byte) op).putInt(seq++).putInt(arg);
+        flush();
+        return true;
+    }
+
+    /**
+     * Send as much of the commands waiting to go as the socket will take.
+     * @return true if they have all gone (see isFlushed)
+     */
+    public boolean flush() throws IOException
+    {
+        if (out.position() == 0) return true;
+        out.flip();
+        channel.write(out);
+        out.compact();
+        return out.position() == 0;
+    }
+
+    /**
+     * @return true if every command has been handed to the socket
+     */
+    public boolean isFlushed()
+    {
+        return out.position() == 0;
+    }
+
+    /**
+     * Read what has arrived, and apply every whole frame in it to game. Any commands still
+     * waiting to go are sent first.
+     * @return the number of frames applied, or -1 if the server has closed the connection
+     */
+    public int receive() throws IOException
+    {
+        flush();
+        int n = channel.read(in);
+        if (n < 0) return -1;
+        bytesReceived += n;
+        in.flip();
+        int frames = 0;
+        while (in.hasRemaining())
+        {
+            int start = in.position();
+            long length = lengthAt(in);
+            if (length < 0 || in.remaining() < length)
+            {
+                in.position(start);                 // (not all here yet)
+                break;
+            }
+            int end = in.position() + (int) length;
+            game.read(in);
+            in.position(end);
+            frames++;
+            if (game.ack > acked)                   // the latency of the commands it includes
+            {
+                long now = System.nanoTime();
+                for (long s = Math.max(acked + 1, game.ack - SENT + 1); s <= game.ack; s++)
+                {
+                    if (latency != null) latency.record(now - sentAt[(int) s & (SENT - 1)]);
+                }
+                acked = game.ack;
+            }
+        }
+        framesReceived += frames;
+        in.compact();
+        if (in.position() == in.capacity())         // a frame bigger than the buffer
+        {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(in.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+            in.flip();
+            bigger.put(in);
+            in = bigger;
+        }
+        return frames;
+    }
+
+    // Read a frame's length, or return -1 if it hasn't all arrived
+    private static long lengthAt( ByteBuffer b )
+    {
+        long n = 0;
+        for (int shift = 0; b.hasRemaining(); shift += 7)
+        {
+            int x = b.get();
+            n |= (long) (x & 0x7F) << shift;
+            if ((x & 0x80) == 0) return n;
+        }
+        return -1;
+    }
+
+    public long getBytesReceived()  { return bytesReceived; }
+    public long getFramesReceived() { return framesReceived; }
+
+    /**
+     * Close the connection.
+     */
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    // The keys a bot would hold to keep the bat under the first ball
+    private static int steer( FrameDelta g )
+    {
+        if (g.balls == 0) return 0;
+        int off = g.ballX[0] + g.ballWidth / 2 - (g.batX + g.batWidth / 2);
+        return off < -10 ? InputState.LEFT : off > 10 ? InputState.RIGHT : 0;
+    }
+
+    /**
+     * The benchmark - connect clients to a server and play for a while.
+     * @param args   optional number of clients (default 100), seconds (default 10) and the
+     *               server's host:port (default - start a server in this JVM, on loopback)
+     */
+    public static void main( String args[] ) throws Exception
+    {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Debug.set(false);
+
+        InetSocketAddress address;
+        NetServer server = null;
+        if (args.length > 2)
+        {
+            String[] hp = args[2].split(":");
+            address = new InetSocketAddress(hp[0], Integer.parseInt(hp[1]));
+        }
+        else
+        {
+            GameServer games = new GameServer(50, Runtime.getRuntime().availableProcessors(), 2 * clients);
+            server = new NetServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), games, null);
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        }
+
+        Histogram latency = new Histogram();
+        NetClient[] all = new NetClient[clients];
+        int[] held = new int[clients];
+        Selector selector = Selector.open();
+        for (int i = 0; i < clients; i++)
+        {
+            all[i] = new NetClient(address, latency);
+            all[i].getChannel().register(selector, SelectionKey.OP_READ, i);
+        }
+
+        // play - a second to warm up, then the measured run
+        long start = System.nanoTime(), measure = start + 1_000_000_000L;
+        long end = measure + seconds * 1_000_000_000L;
+        long bytes0 = 0, frames0 = 0, sent0 = 0;
+        boolean measuring = false, fast = false;
+        for (long now = start; now < end; now = System.nanoTime())
+        {
+            if (!measuring && now >= measure)
+            {
+                measuring = true;
+                latency.reset();
+                for (NetClient c : all) { bytes0 += c.bytesReceived;  frames0 += c.framesReceived; }
+                if (server != null) sent0 = server.getBytesReceived();
+            }
+            if (now - start > (end - start) / 2 && !fast)      // (half way - the balls speed up)
+            {
+                fast = true;
+                for (NetClient c : all) c.send(InputLog.FAST, 1);
+            }
+            selector.select(100);
+            for (SelectionKey key : selector.selectedKeys())
+            {
+                int i = (Integer) key.attachment();
+                NetClient c = all[i];
+                if (key.isWritable()) c.flush();
+                if (key.isReadable() && c.receive() < 0)
+                {
+                    key.cancel();
+                    continue;
+                }
+                int keys = steer(c.game);
+                if (keys != held[i] && c.send(InputLog.KEYS, keys)) held[i] = keys;  // (or try again)
+                // (commands the socket couldn't take yet - write them as soon as it can)
+                key.interestOps(c.isFlushed() ? SelectionKey.OP_READ
+                                              : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+            selector.selectedKeys().clear();
+        }
+
+        long bytes = -bytes0, frames = -frames0;
+        for (NetClient c : all) { bytes += c.bytesReceived;  frames += c.framesReceived; }
+        System.out.printf("NetClient: %d clients for %d s - per client %.0f bytes/s down, " +
+            "%.1f frames/s, %.1f bytes a frame%n", clients, seconds,
+            bytes / (double) seconds / clients, frames / (double) seconds / clients,
+            bytes / (double) Math.max(1, frames));
+        if (server != null)
+        {
+            System.out.printf("NetClient: per client %.0f bytes/s up%n",
+                (server.getBytesReceived() - sent0) / (double) seconds / clients);
+        }
+        System.out.printf("NetClient: input to frame latency %s%n", latency);
+
+        for (NetClient c : all)
+        {
+            c.send(InputLog.STATE, 1);
+            c.close();
+        }
+        selector.close();
+        if (server != null) server.stop();
+    }
+}
@@ -0,0 +1,346 @@
+package breakout;
+
+// Lets clients play over the network (see NetClient). Each client that
+// connects gets its own game, run on a GameServer, and sends the commands the
+// keyboard gives the Controller - the bat keys, fast or normal speed, stop -
+// and gets back a stream of frames, each one only what changed since the one
+// before (see FrameDelta).
+//
+// All the sockets are handled by one thread, with a Selector, and never
+// block. The games run on the GameServer's workers: after each update a
+// game publishes a Frame (the same as for the View) and marks its client as
+// due a frame, and the selector thread is woken up to send it. A client
+// that is slow to read is never sent more than one frame at a time: while
+// the last one is still waiting to go, newer frames just replace each other,
+// and the next one sent is the delta from the last one that went.
+//
+// A command from a client is 9 bytes, little endian: the op (one of the
+// InputLog ops - KEYS, FAST or STATE), a sequence number (int) and the arg
+// (int). Each frame says (ACK) the latest command it includes, so a client
+// can measure how long a key press takes to come back as a frame.
+//
+// Usage:  java -cp engine/target/classes breakout.NetServer [port] [tickRate] [level.lvl]
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <h1>NetServer serves games to remote clients over TCP, with a non-blocking selector loop.</h1>
+ * <p>The buffers for each client are direct and reused for every frame. The bytes sent and
+ * received, frames sent and clients connected are counted (getBytesSent etc).</p>
+ */
+public class NetServer
+{
+    public static final int PORT    = 7250;         // default port
+    public static final int MESSAGE = 9;            // bytes in a command: op, sequence number, arg
+
+    // One client, and its game
+    private class Connection implements ModelListener
+    {
+        final SocketChannel channel;
+        final SelectionKey  key;
+        final Model model;
+        GameServer.Session session;
+        final FrameDelta sent = new FrameDelta();   // the game as the client last saw it
+        final ByteBuffer in = ByteBuffer.allocateDirect(MESSAGE * 64).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer out = ByteBuffer.allocateDirect(4096).order(ByteOrder.LITTLE_ENDIAN);
+        volatile boolean due = false;               // the game has a frame the client hasn't had
+        boolean writing = false;                    // waiting for the socket to take the rest of out
+        boolean closing = false;                    // close once out has gone
+        long command = -1;                          // the latest command from the client
+        long commandTick;                           // ... the update number when it arrived
+        long acked = -1;                            // the latest command a frame has said it includes
+
+        Connection( SocketChannel channel, Model model ) throws IOException
+        {
+            this.channel = channel;
+            this.model = model;
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+            out.limit(0);                           // (nothing to send)
+        }
+
+        // After each update of the game (on a GameServer worker)
+        public void modelChanged( Model m )
+        {
+            m.modelChanged();                       // publish a frame
+            due = true;
+            if (!woken.getAndSet(true)) selector.wakeup();
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final GameServer games;
+    private final LevelFile level;                  // the level every game is played on (or null)
+    private final int width, height;
+    private final ArrayList<Connection> connections = new ArrayList<>();    // selector thread only
+    private final AtomicBoolean woken = new AtomicBoolean();   // the selector has been woken up
+    private volatile boolean running = true;
+
+    private volatile int  clients = 0;
+    private volatile long bytesSent = 0, bytesReceived = 0, framesSent = 0;
+
+    /**
+     * Start listening for clients (on a thread of its own).
+     * @param address   where to listen (port 0 - any free port, see getPort)
+     * @param games     runs the games
+     * @param level     the level to play (null - the normal wall of bricks in a 600 x 800 window)
+     */
+    public NetServer( InetSocketAddress address, GameServer games, LevelFile level ) throws IOException
+    {
+        this.games = games;
+        this.level = level;
+        width  = level != null ? level.getWidth()  : 600;
+        height = level != null ? level.getHeight() : 800;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        Thread t = new Thread(this::run, "NetServer");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort()
+    {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Stop the server - every client is disconnected and its game stopped.
+     */
+    public void stop()
+    {
+        running = false;
+        selector.wakeup();
+    }
+
+    public int  getClients()       { return clients; }
+    public long getBytesSent()     { return bytesSent; }
+    public long getBytesReceived() { return bytesReceived; }
+    public long getFramesSent()    { return framesSent; }
+
+    // The selector loop
+    private void run()
+    {
+        try
+        {
+            while (running)
+            {
+                selector.select(100);
+                woken.set(false);                   // (before looking for frames which are due)
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable())
+                    {
+                        accept();
+                        continue;
+                    }
+                    Connection c = (Connection) key.attachment();
+                    if (key.isReadable()) receive(c);
+                    if (key.isValid() && key.isWritable()) flush(c);
+                }
+                for (int i = connections.size() - 1; i >= 0; i--)
+                {
+                    Connection c = connections.get(i);
+                    if (c.due && !c.writing) send(c);
+                }
+            }
+            for (int i = connections.size() - 1; i >= 0; i--) close(connections.get(i));
+            server.close();
+            selector.close();
+        } catch (IOException e)
+        {
+            Debug.error("NetServer::run: %s", e.getMessage());
+        }
+    }
+
+    // A new client - start a game for it
+    private void accept() throws IOException
+    {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Model model = new Model(width, height);
+        model.setLevel(level);
+        model.setTickRate((int) (1_000_000_000L / games.getPeriodNanos()));
+        model.initialiseGame();
+        Connection c = new Connection(channel, model);
+        connections.add(c);
+        clients = connections.size();
+        c.session = games.add(model, null, c);
+        if (c.session == null)
+        {
+            Debug.error("NetServer::accept: the game server is full");
+            close(c);
+        }
+    }
+
+    // Read commands from a client
+    private void receive( Connection c )
+    {
+        int n;
+        try
+        {
+            n = c.channel.read(c.in);
+        } catch (IOException e)
+        {
+            n = -1;
+        }
+        if (n < 0)                                  // the client has gone
+        {
+            close(c);
+            return;
+        }
+        bytesReceived += n;
+        c.in.flip();
+        while (c.in.remaining() >= MESSAGE)
+        {
+            int op = c.in.get();
+            int seq = c.in.getInt();
+            int arg = c.in.getInt();
+            command(c, op, arg);
+            c.command = seq & 0xFFFFFFFFL;
+            c.commandTick = c.model.getTick();     // (without locking - frames after it include the command)
+        }
+        c.in.compact();
+    }
+
+    // Run a command from a client - what the Controller does for a key
+    private void command( Connection c, int op, int arg )
+    {
+        Model model = c.model;
+        switch (op)
+        {
+            case InputLog.KEYS:                     // the bat keys held
+                InputState keys = model.getInput();
+                long now = System.nanoTime();
+                for (int key = InputState.LEFT; key <= InputState.RIGHT; key <<= 1)
+                {
+                    if ((arg & key) != 0) keys.press(key, now);  else keys.release(key);
+                }
+                break;
+            case InputLog.FAST:                     // fast or normal speed
+                model.setFast(arg != 0);
+                break;
+            case InputLog.STATE:                    // stop the game
+                if (arg != 0) model.setGameState(GameState.FINISHED);
+                break;
+            default:
+                Debug.trace("NetServer::command: unknown op %d", op);
+        }
+    }
+
+    // Send a client the latest frame of its game
+    private void send( Connection c )
+    {
+        c.due = false;
+        if (!c.model.hasNewFrame()) return;         // (already sent)
+        Frame f = c.model.getFrame();
+        boolean finished = c.model.getGameState() == GameState.FINISHED;
+        long ack = -1;
+        if (c.command > c.acked && f.getTick() > c.commandTick)
+        {
+            ack = c.acked = c.command;              // (it arrived before this frame's update)
+        }
+        int need = 5 + c.sent.maxSize(f);
+        if (c.out.capacity() < need)
+        {
+            c.out = ByteBuffer.allocateDirect(Integer.highestOneBit(need) * 2).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        // the frame goes after room for its length, which is put just in front of it
+        c.out.clear();
+        c.out.position(5);
+        c.sent.write(f, ack, finished, c.out);
+        int length = c.out.position() - 5;
+        int start = 5 - FrameDelta.varintSize(length);
+        c.out.limit(c.out.position());
+        c.out.position(start);
+        FrameDelta.putVarint(c.out, length);
+        c.out.position(start);
+        framesSent++;
+        if (finished) c.closing = true;
+        flush(c);
+    }
+
+    // Send as much of the waiting frame as the socket will take
+    private void flush( Connection c )
+    {
+        try
+        {
+            bytesSent += c.channel.write(c.out);
+        } catch (IOException e)
+        {
+            close(c);
+            return;
+        }
+        if (c.out.hasRemaining())
+        {
+            if (!c.writing) c.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            c.writing = true;
+            return;
+        }
+        if (c.writing) c.key.interestOps(SelectionKey.OP_READ);
+        c.writing = false;
+        if (c.closing) close(c);
+        else if (c.due) send(c);                    // (a newer frame came while it was waiting)
+    }
+
+    // Disconnect a client and stop its game
+    private void close( Connection c )
+    {
+        if (c.session != null) c.session.close();
+        c.key.cancel();
+        try
+        {
+            c.channel.close();
+        } catch (IOException e)
+        {
+            Debug.error("NetServer::close: %s", e.getMessage());
+        }
+        connections.remove(c);
+        clients = connections.size();
+    }
+
+    /**
+     * Run a server until it is killed.
+     * @param args   optional port (default 7250), tick rate (default 50) and level file
+     */
+    public static void main( String args[] ) throws Exception
+    {
+        int port     = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+        int tickRate = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        LevelFile level = args.length > 2 ? LevelFile.open(java.nio.file.Paths.get(args[2])) : null;
+        Debug.set(false);
+
+        GameServer games = new GameServer(tickRate, Runtime.getRuntime().availableProcessors(), 1 << 16);
+        NetServer server = new NetServer(new InetSocketAddress(port), games, level);
+        System.out.printf("NetServer: listening on port %d, %d updates/s%n", server.getPort(), tickRate);
+        while (true)
+        {
+            Thread.sleep(10_000);
+            System.out.printf("NetServer: %d clients, %d frames, %d bytes sent, %d received%n",
+                server.getClients(), server.getFramesSent(), server.getBytesSent(),
+                server.getBytesReceived());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package breakout;
+
+// The colours used by the game objects, kept as small integer indexes so
+// that the Model (and GameObj) do not need any JavaFX classes. The View
+// turns an index into a real JavaFX Color when it draws.
+
+/**
+ * Palette class holds the colour indexes for the game objects. The model only stores the
+ * index, the View keeps the matching table of JavaFX colours.
+ */
+public class Palette
+{
+    public static final int GREY   = 0;     // Background of the game
+    public static final int RED    = 1;     // Ball
+    public static final int BLACK  = 2;     // Bat
+    public static final int YELLOW = 3;     // Bricks
+
+    public static final int SIZE   = 4;     // Number of colours in the palette
+}
@@ -0,0 +1,116 @@
+package breakout;
+
+// Replay a game recorded with an InputLog, with no display and no waiting
+// between updates. The state hashes recorded in the log are checked as the
+// replay goes along, so we know the replay is exactly the same game.
+// Usage:  java -cp engine/target/classes breakout.Replay game.log
+// (record a game with  java -Dbreakout.record=game.log Main )
+
+import java.io.*;
+
+/**
+ * <h1>Replay plays back a recorded game headless, as fast as possible.</h1>
+ * <p>The inputs in the log are given to the Model after the same number of updates as when
+ * they were recorded. After every update the state hash is added to a chain, and the chain is
+ * compared with each CHECK and END record in the log.</p>
+ */
+public class Replay
+{
+    /**
+     * Replay a log.
+     * @param args   the log file
+     */
+    public static void main( String args[] ) throws IOException
+    {
+        Debug.set(false);      // no printing in the middle of a fast run
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(args[0]), 1 << 16)))
+        {
+            long start = System.nanoTime();
+            Model model = replay(in);
+            long time = System.nanoTime() - start;
+            System.out.printf("Replay: %d ticks in %.3f s - OK, score = %d%n",
+                model.getTick(), time / 1e9, model.getScore());
+        }
+        catch (EOFException e)
+        {
+            // the game was not finished properly - everything up to the last CHECK matched
+            System.out.println("Replay: the log ends without an END record");
+            System.exit(1);
+        }
+        catch (IllegalStateException e)
+        {
+            System.out.println("Replay: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Replay a log into a new Model.
+     * @param in   the log
+     * @return     the model, at the end of the game
+     * @throws IllegalStateException if the replay does not match the recorded hashes
+     */
+    public static Model replay( DataInputStream in ) throws IOException
+    {
+        if (in.readInt() != InputLog.MAGIC) throw new IllegalStateException("not a breakout log");
+        int version = in.readUnsignedByte();
+        if (version > InputLog.VERSION) throw new IllegalStateException("log version " + version);
+        if (version < InputLog.OLDEST)
+        {
+            throw new IllegalStateException("log version " + version + " was recorded before the physics changed");
+        }
+        int width  = (int) InputLog.readVarint(in);
+        int height = (int) InputLog.readVarint(in);
+        GameConfig config = new GameConfig();      // (the queue holds all of an update's commands)
+        config.COMMANDS = version >= 6 ? (int) InputLog.readVarint(in) : 1024;
+        int checkpoint = version >= 3 ? (int) InputLog.readVarint(in) : 0;
+        int[] rewind = new int[3];                 // updates, updates between keyframes, bytes
+        for (int k = 0; k < 3 && version >= 4; k++) rewind[k] = (int) InputLog.readVarint(in);
+
+        Model model = new Model(width, height, config);
+        model.setCheckpointTicks(checkpoint);      // (so a RESTORE goes back to the same place)
+        if (rewind[0] > 0) model.setRewind(new Rewind(rewind[0], rewind[1], rewind[2]));  // (and a REWIND)
+        model.initialiseGame();
+        long chain = 0;
+        long tick  = 0;
+        while (true)
+        {
+            long at = tick + InputLog.readVarint(in);   // update number of this record
+            int  op = in.readUnsignedByte();
+            while (tick < at)                             // run the updates up to it
+            {
+                model.updateGame();
+                tick++;
+                chain = InputLog.chain(chain, model.stateHash());
+            }
+            switch (op)
+            {
+                case InputLog.MOVE_BAT:  model.moveBat(readArg(in));              break;
+                case InputLog.FAST:      model.setFast(readArg(in) != 0);         break;
+                case InputLog.STATE:     model.setGameState(readArg(in) != 0 ? GameState.FINISHED : GameState.RUNNING); break;
+                case InputLog.ADD_BALLS: model.addBalls(readArg(in));             break;
+                case InputLog.KEYS:      model.getInput().set(readArg(in));       break;
+                case InputLog.RESTORE:   readArg(in);  model.retry();             break;
+                case InputLog.REWIND:    model.rewind(readArg(in));               break;
+                case InputLog.CHECK:
+                case InputLog.END:
+                    long recorded = in.readLong();
+                    if (recorded != chain)
+                    {
+                        throw new IllegalStateException("replay differs from the recording by update " + tick);
+                    }
+                    if (op == InputLog.END) return model;
+                    break;
+                default:
+                    throw new IllegalStateException("bad op code " + op + " at update " + tick);
+            }
+        }
+    }
+
+    // read the argument of an input record
+    private static int readArg( DataInputStream in ) throws IOException
+    {
+        return InputLog.unzigzag((int) InputLog.readVarint(in));
+    }
+}
@@ -0,0 +1,354 @@
+package breakout;
+
+// The last minute or so of the game, kept so the player can go back in time
+// ('rewind the last N seconds'). After every update the Model calls record(),
+// which writes only what changed in that update - how far each ball moved and
+// whether it changed direction, how far the bat moved, which bricks were hit
+// and the change in the score - as a few bytes of variable length numbers.
+// Every keyTicks updates (and after the game jumps - a retry) a keyframe is
+// written instead: a whole Snapshot of the game.
+//
+// Everything goes into one fixed size ring of bytes, so once it is full the
+// oldest updates are written over, and recording makes no garbage. To go back
+// to an update, seek() restores the keyframe at or before it and applies the
+// changes from there on - at most keyTicks - 1 of them.
+//
+// Record format - a kind byte, then:
+//   KEY     the length of the snapshot (varint), then the snapshot
+//   DELTA   flags (byte - FAST, FINISHED, BALLS), the number of balls (varint,
+//           only if BALLS is set - some were added), the bat x move, the
+//           score change (zig-zag varints), the bottom hits (varint), the
+//           bricks hit (a varint count, then the brick numbers as varints),
+//           then for each ball the x move, y move, subX change, subY change,
+//           dirX change and dirY change (zig-zag varints - the moves are
+//           usually one byte, the others 0 - one byte - unless the ball is
+//           at an angle other than 45 degrees or bounced)
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <h2>Rewind keeps a history of the game as per-update changes and keyframes.</h2>
+ * <p>It is attached to the Model with Model.setRewind before the game starts; Model.rewind
+ * goes back. With one ball an update takes about a dozen bytes, so a minute at 50 updates a
+ * second, with a keyframe every second, fits in well under 100 KB on the normal wall. A
+ * keyframe of a big level holds all its live bits (one bit per brick), so give a big level a
+ * bigger ring, or keyframes further apart.</p>
+ * <p>Only the game thread (with the model locked) uses a Rewind.</p>
+ */
+public class Rewind
+{
+    private static final int DELTA = 0, KEY = 1;                    // record kinds
+    private static final int FAST = 1, FINISHED = 2, BALLS = 4;     // DELTA flags
+
+    private final int ticks;            // Most updates kept
+    private final int keyTicks;         // Updates between keyframes
+    private final byte[] ring;          // The records (a power of 2 bytes)
+    private final int mask;             // ring.length - 1
+    private final long[] starts;        // Where each record starts in the ring (ticks + 1 of them)
+    private long written = 0;           // Bytes written to the ring, ever
+    private long records = 0;           // Records written, ever
+    private boolean jumped = true;      // The next record must be a keyframe
+    private boolean off = false;        // A keyframe did not fit - nothing is recorded
+
+    // the game as it was after the latest record, to work out what changed
+    private int[] lastX = new int[4], lastY = new int[4], lastSX = new int[4], lastSY = new int[4];
+    private int[] lastDX = new int[4], lastDY = new int[4];
+    private int lastBalls, lastBatX, lastScore, lastBottom;
+
+    // bricks hit in this update (see hit)
+    private int[] hits = new int[16];
+    private int hitCount = 0;
+
+    // working space for keyframes
+    private ByteBuffer scratch = ByteBuffer.allocateDirect(256);
+
+    /**
+     * Make a history.
+     * @param ticks      how many updates to keep (if they fit in the ring)
+     * @param keyTicks   updates between keyframes - a seek applies fewer changes than this
+     * @param bytes      size of the ring (rounded up to a power of 2)
+     */
+    public Rewind( int ticks, int keyTicks, int bytes )
+    {
+        this.ticks    = ticks;
+        this.keyTicks = Math.max(1, keyTicks);
+        ring   = new byte[Math.max(1024, Integer.highestOneBit(bytes - 1) << 1)];
+        mask   = ring.length - 1;
+        starts = new long[ticks + 1];
+    }
+
+    public int getTicks()     { return ticks; }
+    public int getKeyTicks()  { return keyTicks; }
+    public int getBytes()     { return ring.length; }
+
+    /**
+     * Forget everything (a new game). The next record is a keyframe.
+     */
+    public void clear()
+    {
+        written = 0;
+        records = 0;
+        hitCount = 0;
+        jumped = true;
+        off = false;
+    }
+
+    /**
+     * The game has just jumped (gone back to a checkpoint), so the next record must be a
+     * keyframe.
+     */
+    public void jumped()
+    {
+        jumped = true;
+    }
+
+    /**
+     * Brick b has been hit by a ball in this update (whether it broke or not).
+     */
+    public void hit( int b )
+    {
+        if (hitCount == hits.length) hits = Arrays.copyOf(hits, hitCount * 2);
+        hits[hitCount++] = b;
+    }
+
+    /**
+     * Record the update that has just run. Called by the Model at the end of every update.
+     */
+    void record( Model model )
+    {
+        if (off) return;
+        BallStore balls = model.balls;
+        int n = balls.size();
+        long start = written;
+        if (jumped || records % keyTicks == 0 || n < lastBalls)
+        {
+            if (!writeKey(model)) return;           // (too big - nothing can be recorded)
+            jumped = false;
+        }
+        else
+        {
+            put(DELTA);
+            put((model.fast ? FAST : 0) | (model.gameState == GameState.FINISHED ? FINISHED : 0)
+                | (n != lastBalls ? BALLS : 0));
+            if (n != lastBalls) putVarint(n);
+            putSigned(model.bat.topX - lastBatX);
+            putSigned(model.score - lastScore);
+            putVarint(model.bottomCount - lastBottom);
+            putVarint(hitCount);
+            for (int h = 0; h < hitCount; h++) putVarint(hits[h]);
+            for (int i = 0; i < n; i++)
+            {
+                boolean old = i < lastBalls;        // (a new ball's change is from 0)
+                putSigned(balls.x[i]    - (old ? lastX[i]  : 0));
+                putSigned(balls.y[i]    - (old ? lastY[i]  : 0));
+                putSigned(balls.subX[i] - (old ? lastSX[i] : 0));
+                putSigned(balls.subY[i] - (old ? lastSY[i] : 0));
+                putSigned(balls.dirX[i] - (old ? lastDX[i] : 0));
+                putSigned(balls.dirY[i] - (old ? lastDY[i] : 0));
+            }
+        }
+        hitCount = 0;
+        starts[(int) (records % starts.length)] = start;
+        records++;
+        remember(model);
+    }
+
+    // Write a keyframe - false if it does not fit in the ring
+    private boolean writeKey( Model model )
+    {
+        int size = Snapshot.maxSize(model, model.bricks, model.getBrickGrid());
+        if (size > ring.length / 4)
+        {
+            Debug.error("Rewind::record: keyframe of %d bytes does not fit - history is off", size);
+            clear();
+            off = true;
+            return false;
+        }
+        if (scratch.capacity() < size) scratch = ByteBuffer.allocateDirect(size + size / 2);
+        scratch.clear();
+        int length = Snapshot.encode(model, model.getBrickGrid(), scratch);
+        put(KEY);
+        putVarint(length);
+        for (int k = 0; k < length; k++) put(scratch.get(k));
+        return true;
+    }
+
+    // Remember the game as it is now, to compare with after the next update
+    private void remember( Model model )
+    {
+        BallStore balls = model.balls;
+        int n = balls.size();
+        if (lastX.length < n)
+        {
+            lastX  = new int[balls.x.length];  lastY  = new int[balls.x.length];
+            lastSX = new int[balls.x.length];  lastSY = new int[balls.x.length];
+            lastDX = new int[balls.x.length];  lastDY = new int[balls.x.length];
+        }
+        System.arraycopy(balls.x, 0, lastX, 0, n);        System.arraycopy(balls.y, 0, lastY, 0, n);
+        System.arraycopy(balls.subX, 0, lastSX, 0, n);    System.arraycopy(balls.subY, 0, lastSY, 0, n);
+        System.arraycopy(balls.dirX, 0, lastDX, 0, n);    System.arraycopy(balls.dirY, 0, lastDY, 0, n);
+        lastBalls  = n;
+        lastBatX   = model.bat.topX;
+        lastScore  = model.score;
+        lastBottom = model.bottomCount;
+    }
+
+    /**
+     * @return the number of updates which can be gone back over (0 - none)
+     */
+    public int available()
+    {
+        long key = firstKey();
+        return key < 0 ? 0 : (int) (records - 1 - key);
+    }
+
+    /**
+     * @return the number of bytes the history which can be gone back over takes
+     */
+    public int bytesUsed()
+    {
+        long key = firstKey();
+        return key < 0 ? 0 : (int) (written - start(key));
+    }
+
+    // The oldest keyframe still in the history (-1 if there is none)
+    private long firstKey()
+    {
+        long r = Math.max(0, records - starts.length + 1);
+        while (r < records && start(r) < written - ring.length) r++;   // written over
+        while (r < records && ring[(int) start(r) & mask] != KEY) r++;
+        return r < records ? r : -1;
+    }
+
+    private long start( long r )
+    {
+        return starts[(int) (r % starts.length)];
+    }
+
+    /**
+     * Put the game back as it was after an earlier update - the keyframe at or before it is
+     * restored and the changes from there on applied. The history is kept (see truncate). The
+     * update number is not changed.
+     * @param back    how many updates to go back (0 - the latest); if the history does not go
+     *                back that far, it goes back as far as it can
+     * @return the number of updates actually gone back (-1 - no history, nothing changed)
+     */
+    int seek( Model model, int back )
+    {
+        long first = firstKey();
+        if (first < 0) return -1;
+        long target = Math.max(first, records - 1 - Math.max(0, back));
+        long r = target;
+        while (ring[(int) start(r) & mask] != KEY) r--;     // (at most keyTicks - 1 back)
+        long tick = model.tick;
+        readKey(model, r);
+        while (++r <= target) applyDelta(model, start(r) + 1);
+        model.tick = tick;
+        model.balls.savePositions();
+        model.prevBatX = model.bat.topX;  model.prevBatY = model.bat.topY;
+        return (int) (records - 1 - target);
+    }
+
+    /**
+     * Throw away the records after the one seek went to, so the game carries on from there.
+     * @param back    the number seek returned
+     */
+    void truncate( Model model, int back )
+    {
+        if (back <= 0) return;
+        records -= back;
+        written = start(records);
+        hitCount = 0;
+        remember(model);
+    }
+
+    // Restore the keyframe record r into the model
+    private void readKey( Model model, long r )
+    {
+        readAt = start(r) + 1;
+        int length = (int) getVarint();
+        if (scratch.capacity() < length) scratch = ByteBuffer.allocateDirect(length);
+        scratch.clear();
+        for (int k = 0; k < length; k++) scratch.put((byte) get());
+        scratch.flip();
+        Snapshot.decode(model, model.getBrickGrid(), scratch);
+    }
+
+    // Apply a DELTA record (read from position 'at', after the kind byte) to the model
+    private void applyDelta( Model model, long at )
+    {
+        readAt = at;
+        BallStore balls = model.balls;
+        int flags = get();
+        model.fast      = (flags & FAST) != 0;
+        model.gameState = (flags & FINISHED) != 0 ? GameState.FINISHED : GameState.RUNNING;
+        int n = (flags & BALLS) != 0 ? (int) getVarint() : balls.size();
+        while (balls.size() < n) balls.add(0, 0, 0, 0);
+        model.bat.topX    += getSigned();
+        model.score       += getSigned();
+        model.bottomCount += (int) getVarint();
+        BrickStore bricks = model.bricks;
+        for (int h = (int) getVarint(); h > 0; h--)
+        {
+            int b = (int) getVarint();
+            if (bricks.hit(b)) model.getBrickGrid().remove(b, bricks);
+        }
+        for (int i = 0; i < n; i++)
+        {
+            balls.x[i]    += getSigned();
+            balls.y[i]    += getSigned();
+            balls.subX[i] += getSigned();
+            balls.subY[i] += getSigned();
+            balls.dirX[i] += getSigned();
+            balls.dirY[i] += getSigned();
+        }
+    }
+
+    // Writing to the ring, at 'written'
+
+    private void put( int b )
+    {
+        ring[(int) written++ & mask] = (byte) b;
+    }
+
+    private void putVarint( long n )
+    {
+        while ((n & ~0x7FL) != 0)
+        {
+            put((int) ((n & 0x7F) | 0x80));
+            n >>>= 7;
+        }
+        put((int) n);
+    }
+
+    private void putSigned( int n )
+    {
+        putVarint(InputLog.zigzag(n) & 0xFFFFFFFFL);
+    }
+
+    // Reading from the ring, at 'readAt'
+
+    private long readAt;
+
+    private int get()
+    {
+        return ring[(int) readAt++ & mask] & 0xFF;
+    }
+
+    private long getVarint()
+    {
+        long n = 0;
+        for (int shift = 0; ; shift += 7)
+        {
+            int b = get();
+            n |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return n;
+        }
+    }
+
+    private int getSigned()
+    {
+        return InputLog.unzigzag((int) getVarint());
+    }
+}
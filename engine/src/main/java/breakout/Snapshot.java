@@ -0,0 +1,212 @@
+package breakout;
+
+// A snapshot is the whole state of a game (everything that stateHash looks
+// at, and a little more) in a compact binary form, so a game can be saved and
+// carried on later, or taken back to an earlier point ('retry from here').
+// Encoding writes straight from the Model's arrays into a ByteBuffer the
+// caller keeps and reuses, and restoring reads straight back into the arrays
+// the Model already has - each array is one bulk copy, and no copies of the
+// game are made on the heap, so a snapshot can be taken every second without
+// the game (or the garbage collector) noticing.
+//
+// Format - little endian:
+//   header   MAGIC, VERSION (ints), then the level it is for: width, height
+//            and number of bricks (ints)
+//   game     tick (long), score, bottomCount (ints), fast, state (bytes)
+//   bat      x, y, previous x, previous y (ints)
+//   balls    count, then the x, y, subX, subY, dirX, dirY, prevX and prevY
+//            arrays (ints)
+//   bricks   live count (int), live hash (long), the live bits (words, then
+//            that many longs), damage (byte 0, or 1 then a byte per brick)
+//   grid     the empty cell bits (words, then that many longs)
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * <h2>Snapshot encodes and restores the complete state of a Model.</h2>
+ * <p>encode and decode are called by the Model (see Model.snapshot and Model.restore) with the
+ * model locked. A snapshot can only be restored into a game on the same level - the level's
+ * size and number of bricks are checked. The VERSION goes up whenever the format changes.</p>
+ */
+public class Snapshot
+{
+    public static final int MAGIC   = 0x42524B53;   // "BRKS"
+    public static final int VERSION = 2;            // (2 - fixed point ball positions and directions)
+
+    /**
+     * The most bytes a snapshot of a model can take at the moment (more balls make it bigger).
+     */
+    static int maxSize( Model model, BrickStore bricks, BrickGrid grid )
+    {
+        return 5 * 4 + 8 + 2 * 4 + 2 + 4 * 4                        // header, game, bat
+             + 4 + 8 * 4 * model.balls.size()                         // balls
+             + 4 + 8 + 4 + 8 * bricks.liveWords()                     // bricks
+             + 1 + (bricks.isDamaged() ? bricks.damageBytes() : 0)
+             + 4 + 8 * grid.emptyWords();                             // grid
+    }
+
+    /**
+     * Write a snapshot of a model at the buffer's position, leaving the position after it.
+     * The buffer is switched to little endian.
+     * @return the number of bytes written
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    static int encode( Model model, BrickGrid grid, ByteBuffer out )
+    {
+        int start = out.position();
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION);
+        out.putInt(model.getWidth()).putInt(model.getHeight()).putInt(model.bricks.size());
+        out.putLong(model.tick).putInt(model.score).putInt(model.bottomCount);
+        out.put((byte) (model.fast ? 1 : 0)).put((byte) model.gameState.ordinal());
+        out.putInt(model.bat.topX).putInt(model.bat.topY).putInt(model.prevBatX).putInt(model.prevBatY);
+        model.balls.save(out);
+        model.bricks.save(out);
+        grid.save(out);
+        return out.position() - start;
+    }
+
+    /**
+     * Restore a model from a snapshot at the buffer's position, leaving the position after it.
+     * The model's own objects are filled in (the balls get more room only if there are more
+     * balls than they have room for). The whole snapshot is checked first, so if it is thrown
+     * out the model is left as it was.
+     * @throws IllegalStateException if it is not a snapshot, is for a different level, or is
+     *                               cut short or corrupt
+     */
+    static void decode( Model model, BrickGrid grid, ByteBuffer in )
+    {
+        in.order(ByteOrder.LITTLE_ENDIAN);
+        check(model, grid, in.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+        in.position(in.position() + 5 * 4);                         // (the header - checked)
+        model.tick        = in.getLong();
+        model.score       = in.getInt();
+        model.bottomCount = in.getInt();
+        model.fast        = in.get() != 0;
+        model.gameState   = GameState.values()[in.get()];
+        model.bat.topX    = in.getInt();
+        model.bat.topY    = in.getInt();
+        model.prevBatX    = in.getInt();
+        model.prevBatY    = in.getInt();
+        model.balls.restore(in);
+        model.bricks.restore(in);
+        grid.restore(in);
+    }
+
+    // Check a snapshot can be restored into the model, reading it from a copy of the buffer
+    // (nothing is changed): the header, the game state, the sizes of the sections and that
+    // the bytes are all there
+    private static void check( Model model, BrickGrid grid, ByteBuffer in )
+    {
+        need(in, 5 * 4);
+        if (in.getInt() != MAGIC) throw new IllegalStateException("not a breakout snapshot");
+        int version = in.getInt();
+        if (version != VERSION) throw new IllegalStateException("snapshot version " + version);
+        if (in.getInt() != model.getWidth() || in.getInt() != model.getHeight() ||
+            in.getInt() != model.bricks.size())
+        {
+            throw new IllegalStateException("snapshot is for a different level");
+        }
+        need(in, 8 + 2 * 4 + 2 + 4 * 4 + 4);                        // game, bat, ball count
+        int state = in.get(in.position() + 8 + 2 * 4 + 1);
+        if (state < 0 || state >= GameState.values().length)
+        {
+            throw new IllegalStateException("snapshot has a bad game state " + state);
+        }
+        in.position(in.position() + 8 + 2 * 4 + 2 + 4 * 4);
+        int balls = in.getInt();
+        if (balls < 0 || balls > in.remaining() / (8 * 4))
+        {
+            throw new IllegalStateException("snapshot is cut short or corrupt");
+        }
+        in.position(in.position() + 8 * 4 * balls);
+        need(in, 4 + 8);                                            // live count, live hash
+        int live = in.getInt();
+        if (live < 0 || live > model.bricks.size())
+        {
+            throw new IllegalStateException("snapshot is cut short or corrupt");
+        }
+        in.position(in.position() + 8);
+        skipLongs(in, model.bricks.liveWords());
+        need(in, 1);
+        int damaged = in.get();
+        if (damaged == 1)
+        {
+            need(in, model.bricks.damageBytes());
+            in.position(in.position() + model.bricks.damageBytes());
+        }
+        else if (damaged != 0)
+        {
+            throw new IllegalStateException("snapshot is cut short or corrupt");
+        }
+        skipLongs(in, grid.emptyWords());
+    }
+
+    // Check there are n more bytes
+    private static void need( ByteBuffer in, int n )
+    {
+        if (in.remaining() < n) throw new IllegalStateException("snapshot is cut short or corrupt");
+    }
+
+    // Check a count of longs is the number expected, and they are all there, and skip them
+    private static void skipLongs( ByteBuffer in, int words )
+    {
+        need(in, 4);
+        if (in.getInt() != words) throw new IllegalStateException("snapshot is for a different level");
+        need(in, 8 * words);
+        in.position(in.position() + 8 * words);
+    }
+
+    // Write n ints from an array, as one copy
+    static void putInts( ByteBuffer out, int[] a, int n )
+    {
+        out.asIntBuffer().put(a, 0, n);
+        out.position(out.position() + 4 * n);
+    }
+
+    // Read n ints into an array, as one copy
+    static void getInts( ByteBuffer in, int[] a, int n )
+    {
+        in.asIntBuffer().get(a, 0, n);
+        in.position(in.position() + 4 * n);
+    }
+
+    // Write a count and then that many longs from an array
+    static void putLongs( ByteBuffer out, long[] a )
+    {
+        out.putInt(a.length);
+        out.asLongBuffer().put(a);
+        out.position(out.position() + 8 * a.length);
+    }
+
+    // Read a count and then that many longs into an array (which must be that long)
+    static void getLongs( ByteBuffer in, long[] a )
+    {
+        int n = in.getInt();
+        if (n != a.length) throw new IllegalStateException("snapshot is for a different level");
+        in.asLongBuffer().get(a);
+        in.position(in.position() + 8 * n);
+    }
+
+    /**
+     * Save a snapshot (from position 0 to the limit of the buffer) to a file.
+     */
+    public static void write( Path path, ByteBuffer snapshot ) throws java.io.IOException
+    {
+        byte[] bytes = new byte[snapshot.limit()];
+        snapshot.duplicate().position(0).get(bytes);
+        Files.write(path, bytes);
+    }
+
+    /**
+     * Read a snapshot saved with write.
+     * @return a buffer holding it (position 0, limit the end)
+     */
+    public static ByteBuffer read( Path path ) throws java.io.IOException
+    {
+        return ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
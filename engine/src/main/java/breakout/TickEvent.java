@@ -0,0 +1,45 @@
+package breakout;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Java Flight Recorder events for the game. They are all switched off unless
+// a recording turns them on (see breakout.jfc), and then show up next to the
+// GC pauses and JavaFX pulses on the same timeline in JDK Mission Control.
+// Switched off, an event costs one check of a flag (the JIT removes the rest).
+// Loading the first event class starts up part of JFR, which takes a good
+// fraction of a second, so the game only makes events once a recording has
+// been started (FlightRecorder.isInitialized()).
+
+/**
+ * <h2>TickEvent is one game update, recorded by the game loop (Model.runGame).</h2>
+ * <p>The event lasts as long as the update took.</p>
+ */
+@Name("breakout.Tick")
+@Label("Game Tick")
+@Category("Breakout")
+@Description("One update of the game loop")
+@Enabled(false)
+@StackTrace(false)
+public class TickEvent extends jdk.jfr.Event
+{
+    @Label("Tick")
+    public long tick;
+
+    @Label("Balls")
+    public int balls;
+
+    @Label("Bricks Scanned")
+    @Description("Bricks looked at by the grid queries in this update")
+    public long bricksScanned;
+
+    @Label("Late")
+    @Description("How long after its planned time the update ran")
+    @Timespan(Timespan.NANOSECONDS)
+    public long late;
+}
@@ -0,0 +1,73 @@
+package breakout;
+
+// Measurements of how well the game loop keeps to its timetable. Each
+// update has a time it should run at (start + n * tick length). 'Jitter'
+// is how late an update actually runs, and 'drift' is how far the game
+// as a whole has fallen behind the clock (this only grows when the loop
+// gets so far behind that it gives up on some updates).
+
+/**
+ * <h2>TickStats records the timing of the fixed timestep game loop.</h2>
+ * <p>Only the game thread writes the numbers. Other threads can read them at any time
+ * (the values are volatile, so they see recent numbers).</p>
+ */
+public class TickStats
+{
+    private volatile long ticks      = 0;   // Number of updates run
+    private volatile long dropped    = 0;   // Updates skipped because the loop was too far behind
+    private volatile long totalLate  = 0;   // Total jitter (nanoseconds)
+    private volatile long maxLate    = 0;   // Worst jitter (nanoseconds)
+    private volatile long drift      = 0;   // Real time minus game time (nanoseconds)
+
+    /**
+     * Record one update. Game thread only.
+     * @param late   how long after its planned time the update ran (nanoseconds)
+     */
+    public void tick( long late )
+    {
+        ticks++;
+        totalLate += late;
+        if (late > maxLate) maxLate = late;
+    }
+
+    /**
+     * Record updates which were skipped to catch up with the clock. Game thread only.
+     * @param n   number of updates skipped
+     */
+    public void drop( long n )
+    {
+        dropped += n;
+    }
+
+    /**
+     * Record the drift. Game thread only.
+     * @param nanos   real time since the start minus game time since the start
+     */
+    public void setDrift( long nanos )
+    {
+        drift = nanos;
+    }
+
+    public long getTicks()          { return ticks; }
+    public long getDropped()        { return dropped; }
+    public long getMaxJitterNanos() { return maxLate; }
+    public long getDriftNanos()     { return drift; }
+
+    /**
+     * @return the average jitter (nanoseconds)
+     */
+    public long getMeanJitterNanos()
+    {
+        long n = ticks;
+        return n == 0 ? 0 : totalLate / n;
+    }
+
+    /**
+     * @return a one line summary, for debugging messages
+     */
+    public String toString()
+    {
+        return String.format("%d ticks, %d dropped, jitter mean %.3f ms max %.3f ms, drift %.3f ms",
+            ticks, dropped, getMeanJitterNanos() / 1e6, maxLate / 1e6, drift / 1e6);
+    }
+}
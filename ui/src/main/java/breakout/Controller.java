@@ -1,3 +1,5 @@
+package breakout;
+
 // The breakout controller converts key presses from the user (received by the View object)
 // into commands for the game (in the Model object)
 
@@ -36,9 +38,25 @@ public class Controller
   // the keypresses into commands which are run in the model
   public void userKeyInteraction(KeyEvent event )
   {
+    long now = System.nanoTime();
+
     // print a debugging message to show a key has been pressed
-    Debug.trace("Controller::userKeyInteraction: keyCode = " + event.getCode() );
+    Debug.trace("Controller::userKeyInteraction: keyCode = %s", event.getCode() );
     
+    // The bat keys are just marked as up or down - the model moves the bat on
+    // every update while one is down, so the keyboard repeat rate does not matter
+    // (and the repeated key presses are ignored)
+    InputState keys = model.getInput();
+    if ( event.getEventType() == KeyEvent.KEY_RELEASED )
+    {
+      switch ( event.getCode() )
+      {
+        case LEFT:  keys.release( InputState.LEFT );  break;
+        case RIGHT: keys.release( InputState.RIGHT ); break;
+      }
+      return;
+    }
+
     // KeyEvent objects have a method getCode which tells us which key has been pressed.
     // KeyEvent also provides variables LEFT, RIGHT, F, N, S (etc) which are the codes
     // for individual keys. So you can add keys here just by using ther name (which you
@@ -46,11 +64,11 @@ public class Controller
     switch ( event.getCode() )             
     {
       case LEFT:                     // Left Arrow
-        model.moveBat( -4);          // move bat left
-        break;
+        keys.press( InputState.LEFT, now );    // bat moves left while held
+        return;
       case RIGHT:                    // Right arrow
-        model.moveBat( +4 );         // Move bat right
-        break;
+        keys.press( InputState.RIGHT, now );   // bat moves right while held
+        return;
       case F :
         // Very fast ball movement
         model.setFast(true);
@@ -61,8 +79,22 @@ public class Controller
         break;
       case S :
         // stop the game
-        model.setGameState("finished");
+        model.setGameState( GameState.FINISHED );
+        break;
+      case B :
+        // ball storm - lots more balls
+        model.addBalls(100);
+        break;
+      case R :
+        // retry - back to the latest checkpoint (taken every second)
+        model.retry();
+        break;
+      case Z :
+        // rewind - back 5 seconds (press again to go further, up to a minute)
+        model.rewind( 5 * model.getTickRate() );
         break;
     }
+    // (these only queue a command - the model runs it at the start of its next
+    // update, so the JavaFX thread never waits for the game)
   }
 }
@@ -0,0 +1,166 @@
+package breakout;
+
+// breakout game Main class - use this class to start the game
+
+// We need to access some JavaFX classes so we list ('import') them here
+
+import javafx.application.Application;
+import javafx.stage.Stage;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * <h1>This is the Main class for Breakout Game.</h1>
+ * Class Main use Application java import which helps to run in JavaFX
+ * @author Sebin Simon
+ */
+public class Main extends Application
+{
+    /**
+     * This is the main method which run JavaFX Application
+     */
+    // The 'main' method - this is only used when launching from the command line.
+    public static void main( String args[] )
+    {
+        // 'launch' initialises the system and then calls 'start'
+        // (When running in BlueJ, the menu option 'Run JavaFX Application'
+        // calls 'start' itself)
+        launch(args);
+    }
+
+
+    /**
+     * This is Stage window which helps to create scene, <b>H</b> and <b>W</b> shows the height and width of 
+     * the game in pixels.
+     * @param H    it assign the <b>height</b> value of the game window.
+     * @result     this is the height of our game window.
+     * @param W    it assign the <b>width</b> value of our game window.
+     * <p>Main class call Model, View and Controller class to run the method and they can 
+     * transfer message between each other or update the score on the interface whenever the 
+     * ball it a brick it add score and update on the canvas. </p>
+     * <p>Debug helps to track the process of our game.</p>
+     * 
+     */
+    // the 'start' method - this creates the Model, View and Controller objects and
+    // makes them talk to each other, it then sets up the user interface (in the View 
+    // object) and starts the game running (in the Model object)
+    public void start(Stage window) 
+    {
+        int H = 800;         // Height of game window (in pixels)
+        int W = 600;         // Width  of game window (in pixels)
+
+        // set up debugging and print initial debugging message
+        // (messages are printed by a background thread, so they do not slow the game;
+        // run with -Dbreakout.log=trace to see every key press and bat move, or
+        // -Dbreakout.log=off to see nothing)
+        Debug.setLevel(System.getProperty("breakout.log", "info"));
+        Debug.info("Main::start: Breakout starting"); 
+
+        // a level from a file (see LevelFile) can be played with -Dbreakout.level=file.lvl
+        // - it can be bigger than the window, which then follows the ball around
+        LevelFile level = null;
+        String levelFile = System.getProperty("breakout.level");
+        if (levelFile != null)
+        {
+            try
+            {
+                level = LevelFile.open(Paths.get(levelFile));
+            } catch (IOException | IllegalStateException e)
+            {
+                Debug.error("Main::start: can't open level %s - %s", levelFile, e.getMessage());
+            }
+        }
+
+        // Create the Model, View and Controller objects
+        // (the model is the size of the level, the view the size of the window)
+        Model model = level == null ? new Model(W,H) : new Model(level.getWidth(), level.getHeight());
+        model.setLevel(level);
+        // measure the game loop and the drawing (watch it with jconsole - see Metrics.java)
+        Metrics metrics = new Metrics(model);
+        model.setMetrics(metrics);
+        metrics.register();
+        View  view  = new View(W,H);
+        Controller controller  = new Controller();
+
+        // Link them together so they can talk to each other
+        // Each one has instance variables for the other two
+        // (the model does not need to know about the view - the view fetches new
+        // frames from the model itself, once per screen refresh)
+        
+        controller.model = model;
+        controller.view = view;
+        
+        view.model = model;
+        view.controller = controller;
+
+        // start up the game interface (the View object, passing it the window
+        // object that JavaFX passed to this method, and then tell the model to 
+        // start the game
+        // (the number of game updates per second can be changed with
+        // -Dbreakout.tickRate=N on the java command line)
+        // (and the game can be recorded, for Replay, with -Dbreakout.record=file)
+        view.start(window);                    
+        model.setTickRate(Integer.getInteger("breakout.tickRate", 50));
+        // take a checkpoint every second - R goes back to it
+        model.setCheckpointTicks(model.getTickRate());
+        // and keep the last minute, with a keyframe every second - Z goes back 5 seconds
+        // (a big level needs room for sixty keyframes of about a quarter of a byte per brick)
+        int bytes = Math.max(1 << 19, level == null ? 0 : 16 * level.getBrickCount());
+        model.setRewind(new Rewind(60 * model.getTickRate(), model.getTickRate(), bytes));
+        String record = System.getProperty("breakout.record");
+        if (record != null)
+        {
+            try
+            {
+                InputLog log = new InputLog(new FileOutputStream(record));
+                model.setInputLog(log);
+                // make sure the end of the log is written even if the window is just closed
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> log.close(model.getTick())));
+            } catch (IOException e)
+            {
+                Debug.error("Main::start: can't record to %s - %s", record, e.getMessage());
+            }
+        }
+        // the game can be saved when it closes and carried on next time with
+        // -Dbreakout.save=file (the latest checkpoint is saved - see Snapshot)
+        String save = System.getProperty("breakout.save");
+        ByteBuffer saved = null;
+        if (save != null)
+        {
+            Path savePath = Paths.get(save);
+            try
+            {
+                if (Files.exists(savePath)) saved = Snapshot.read(savePath);
+            } catch (IOException e)
+            {
+                Debug.error("Main::start: can't read saved game %s - %s", save, e.getMessage());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                ByteBuffer checkpoint = model.getCheckpoint();
+                if (checkpoint == null) return;
+                try
+                {
+                    Snapshot.write(savePath, checkpoint);
+                } catch (IOException e)
+                {
+                    System.err.println("Main: can't save game to " + save + " - " + e.getMessage());
+                }
+            }));
+        }
+        model.startGame();
+        if (saved != null)
+        {
+            // carry on the saved game (a recording of it can't be replayed, as the
+            // replay does not start from the saved game)
+            model.setCheckpoint(saved);
+            model.retry();
+        }
+
+        // application is now running - print a debug message to say so
+        Debug.info("Main::start: Breakout running"); 
+    }
+}
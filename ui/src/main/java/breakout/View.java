@@ -0,0 +1,502 @@
+package breakout;
+
+// The View class creates and manages the GUI for the application.
+// It doesn't know anything about the game itself, it just displays
+// the current state of the Model, and handles user input
+
+// We import lots of JavaFX libraries (we may not use them all, but it
+// saves us having to thinkabout them if we add new code)
+import javafx.animation.AnimationTimer;
+import javafx.event.EventHandler;
+import javafx.scene.input.*;
+import javafx.scene.canvas.*;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.scene.paint.*;
+import javafx.scene.shape.*;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import java.util.Arrays;
+import jdk.jfr.FlightRecorder;
+/**
+ * <h2>View handles the interface of the breakout game.</h2>
+ * <p>View update the GUI when it talks with Model class. width and height is our breakout game's
+ * window size. The bat, ball, bricks and score are drawn from a Frame, a snapshot which
+ * the Model publishes after every update. The level can be bigger than the window - then
+ * the window is a camera which follows the ball, and only the bricks in the camera's
+ * rectangle are drawn (or even looked at). 
+ * @param width        fix the width of game window.
+ * @param height       fix the height of game window.
+ * @param Pane         create layout for the game.
+ * @param Canvas       it helps to draw objects inside the canvas (one canvas for the brick
+ *                     wall, one in front of it for the ball and bat).
+ * @param Controller   it link to the class Controller to communicate each other.
+ * @param Model        View class is communicating with Model class.
+ * @param frame        latest snapshot of the bat, ball, bricks and score.
+ */
+public class View implements EventHandler<KeyEvent>
+{ 
+    // variables for components of the user interface
+    protected int width;       // width of window
+    protected int height;      // height of window
+
+    // user interface objects
+    public Pane pane;       // basic layout pane
+    private Canvas wall;     // canvas with the background and bricks (changes rarely)
+    private Canvas canvas;   // canvas to draw the ball and bat on, in front of the wall
+    private Label infoText;  // info at top of screen
+
+    // The other parts of the model-view-controller setup
+    public Controller controller;
+    public Model model;
+
+    private Frame frame;              // Latest picture of the game (ball, bat, bricks, score)
+    private AnimationTimer timer;     // Called by JavaFX once for every screen refresh
+    private long drawTime;            // Time (System.nanoTime) of the screen refresh being drawn
+    private long lagTick = -1;        // Latest frame whose lag has been measured
+    private int[] ballNowX = new int[1], ballNowY = new int[1];  // Where the balls are drawn in this refresh
+    private int  balls;               // Number of balls in this refresh
+    private int  batNowX,  batNowY;   // Where the bat is drawn in this refresh
+    private int  camX, camY;          // Top left of the part of the level in the window (the camera)
+
+    // What is on the canvases at the moment, so that only the parts which change
+    // have to be drawn again (the 'damaged' rectangles)
+    private boolean    fullRepaint = true;      // Set to redraw everything on the next frame
+    private BrickStore drawnBricks;             // Bricks (level) on the wall canvas
+    private int        drawnVersion;            // BrickStore version of the bricks drawn
+    private int drawnCamX, drawnCamY;           // Where the camera was for the wall canvas
+    private BrickGrid.Result inView = new BrickGrid.Result();   // The bricks in the camera rectangle
+    private int       viewCount = 0;            // (how many)
+    private boolean[] shown = new boolean[16];  // Which of them are drawn on the wall canvas
+    private int[] ballX = new int[1], ballY = new int[1];   // Where the balls were drawn
+    private int drawnBalls, ballW, ballH;       // (how many, and their size)
+    private int batX,  batY,  batW,  batH;      // Where the bat was drawn
+    private int drawnScore = Integer.MIN_VALUE; // Score shown in infoText
+
+    private int   damaged = 0;                  // Number of damaged rectangles
+    private int[] damage  = new int[4 * 16];    // x, y, w, h of each damaged rectangle
+    private static final int MAX_DAMAGE = 64;   // With more balls than this, clear the whole
+                                                // front canvas instead
+
+    // JavaFX colours for each of the Palette indexes used by the game objects
+    private static final Color[] COLOURS = new Color[Palette.SIZE];
+    static
+    {
+        COLOURS[Palette.GREY]   = Color.GREY;
+        COLOURS[Palette.RED]    = Color.RED;
+        COLOURS[Palette.BLACK]  = Color.BLACK;
+        COLOURS[Palette.YELLOW] = Color.YELLOW;
+    }
+
+    /**
+     * View method control the width and height of the game window. <b>w</b> is initialised with
+     * the width value and <b>h</b> is initialised with height value
+     */
+    // constructor method - we get told the width and height of the window
+    public View(int w, int h)
+    {
+        Debug.trace("View::<constructor>");
+        width = w;
+        height = h;
+    }
+
+    /**
+     * Start method uses javafx.stage which help to create canvas, inside that canvas we draw 
+     * our object. We use css to style the label which shows the score when the ball hit the 
+     * brick. inforText.setTranslateX and Y used to set the label on a side of the window.
+     */
+    // start is called from the Main class, to start the GUI up
+    public void start(Stage window) 
+    {
+        createNodes();
+
+        // Make a new JavaFX Scene, containing the complete GUI
+        Scene scene = new Scene(pane);   
+        scene.getStylesheets().add("breakout.css"); // tell the app to use our css file
+
+        // Add an event handler for key presses. By using 'this' (which means 'this 
+        // view object itself') we tell JavaFX to call the 'handle' method (below)
+        // whenever a key is pressed
+        scene.setOnKeyPressed(this);
+        scene.setOnKeyReleased(this);       // (the bat moves while its key is held down)
+
+        // put the scene in the window and display it
+        window.setScene(scene);
+        window.show();
+
+        // JavaFX calls the timer once for every screen refresh (a 'pulse'). Each
+        // time, we draw the latest frame from the model. However fast the model
+        // runs, there is never more than one frame waiting to be drawn, and frames
+        // the screen could not show are just skipped (the model counts them).
+        // Even with no new frame the ball and bat may move a little, because
+        // they are drawn part of the way between the last two updates
+        timer = new AnimationTimer()
+        {
+            public void handle(long now)
+            {
+                drawTime = now;
+                update();
+            }
+        };
+        timer.start();
+    }
+
+    /**
+     * startOffscreen creates the canvases and score label without a window, so that frames can
+     * be drawn (and timed) with no screen. Nothing is shown and no timer is started - call
+     * drawFrame to draw.
+     */
+    // used by the benchmarks to time drawPicture
+    void startOffscreen()
+    {
+        createNodes();
+    }
+
+    // Create the pane, the two canvases and the score label (but not the Scene)
+    private void createNodes()
+    {
+        // breakout is basically one big drawing canvas, and all the objects are
+        // drawn on it as rectangles, except for the ball and text at the 
+        //top - this is a label which sits 'in front of' the canvas.
+        
+        // Note that it is important to create control objects (Pane, Label,Canvas etc) 
+        // here not in the constructor (or as initialisations to instance variables),
+        // to make sure everything is initialised in the right order
+        pane = new Pane();       // a simple layout pane
+        pane.setId("Breakout");  // Id to use in CSS file to style the pane if needed
+        
+        // canvas objects - we set the width and height here (from the constructor), 
+        // and the pane and window set themselves up to be big enough.
+        // The bricks hardly ever change, so they are drawn once on their own
+        // 'wall' canvas, and only a brick which has been hit is drawn again.
+        // The ball and bat are drawn on a see-through canvas in front of it,
+        // and JavaFX puts the two together (the wall is copied as one image)
+        wall   = new Canvas(width,height);
+        canvas = new Canvas(width,height);  
+        pane.getChildren().add(wall);       // add the canvases to the pane
+        pane.getChildren().add(canvas);     // (the ball and bat in front of the wall)
+        // if the canvas changes size, everything has to be drawn again
+        canvas.widthProperty().addListener( (obs, old, now) -> fullRepaint = true );
+        canvas.heightProperty().addListener( (obs, old, now) -> fullRepaint = true );
+        
+        // infoText box for the score - a label which we position in front of
+        // the canvas (by adding it to the pane after the canvas)
+        infoText = new Label("BreakOut: Score = 0");
+        infoText.setTranslateX(50);  // these commands setthe position of the text box
+        infoText.setTranslateY(10);  // (measuring from the top left corner)
+        pane.getChildren().add(infoText);  // add label to the pane
+    }
+
+    /**
+     * handle method wait user to press a key then it pass the information to the controller 
+     * class which execute the program. handle method use 
+     * javafx.event.EventHandler<javafx.scene.input.KeyEvent> import to get the user interaction.
+     */
+    // Event handler for key presses and releases - it just passes the event to the controller
+    public void handle(KeyEvent event)
+    {
+        // send the event to the controller
+        controller.userKeyInteraction( event );
+    }
+
+    /**
+     * This is the method to display our object like ball, bat and bricks. It draws the latest
+     * Frame published by the Model, so it does not need to lock the Model while it draws.
+     * The bricks are on their own wall canvas, and only a brick which has been hit is drawn
+     * again (as background). On the front canvas, only the places where the ball and bat
+     * were and where they are now are drawn again. Everything is drawn only for a new level
+     * or when the canvas changes size.
+     * @param gc              Graphics Context.
+     * @param setFill         Change the colour of canvas.
+     * @param fillRect        Change the shape of the object into rectangle shape.
+     * @param displayBall     Display the ball
+     * @param displayBat      Display the bat
+     */
+    // drawing the game image
+    public void drawPicture()
+    {
+        // the game loop is running 'in the background', but the frame we draw
+        // is a snapshot which the game thread will not change until we ask for
+        // a new one, so we do not need to lock the model
+        if (frame == null || frame.getBricks() == null) return;   // nothing published yet
+        DrawEvent event = FlightRecorder.isInitialized() ? new DrawEvent() : null;
+        if (event != null) event.begin();      // (for Flight Recorder - see DrawEvent)
+
+        // get the 'paint brush' to pdraw on the canvas
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        BrickStore bricks = frame.getBricks();
+
+        // the model updates at its own fixed rate, which is not the same as the
+        // screen refresh rate - so draw the balls and bat part of the way between
+        // where they were one update ago and where they are now
+        double a = frame.alpha(drawTime);
+        balls = frame.getBallCount();
+        if (ballNowX.length < balls)
+        {
+            ballNowX = new int[balls * 2];  ballNowY = new int[balls * 2];
+        }
+        for (int b = 0; b < balls; b++)
+        {
+            ballNowX[b] = lerp(frame.getPrevBallX(b), frame.getBallX(b), a);
+            ballNowY[b] = lerp(frame.getPrevBallY(b), frame.getBallY(b), a);
+        }
+        batNowX  = lerp(frame.getPrevBatX(),  frame.getBatX(),  a);
+        batNowY  = lerp(frame.getPrevBatY(),  frame.getBatY(),  a);
+
+        // everything is drawn at its place in the level - the canvases are moved
+        // (translated) so that the camera's rectangle is the part in the window
+        moveCamera();
+        gc.setTransform( 1, 0, 0, 1, -camX, -camY );
+        boolean moved = camX != drawnCamX || camY != drawnCamY;
+        boolean full = fullRepaint || bricks != drawnBricks || moved ||
+                       balls > MAX_DAMAGE || drawnBalls > MAX_DAMAGE;
+        damaged = 0;
+        if (full)
+        {
+            if (fullRepaint || bricks != drawnBricks || moved) drawWall(wall.getGraphicsContext2D(), bricks);
+            else updateWall(bricks);
+            gc.clearRect( camX, camY, canvas.getWidth(), canvas.getHeight() );
+            displayBall( gc, frame );     // Display the Ball
+            displayBat( gc, frame );      // Display the Bat
+        }
+        else
+        {
+            updateWall(bricks);
+
+            // the damaged rectangles on the front canvas - where the balls and bat
+            // were and where they are now
+            for (int b = 0; b < Math.max(balls, drawnBalls); b++)
+            {
+                if (b >= balls || b >= drawnBalls || ballX[b] != ballNowX[b] || ballY[b] != ballNowY[b])
+                {
+                    if (b < drawnBalls) addDamage(ballX[b], ballY[b], ballW, ballH);
+                    if (b < balls) addDamage(ballNowX[b], ballNowY[b], frame.getBallWidth(), frame.getBallHeight());
+                }
+            }
+            if (batX != batNowX || batY != batNowY)
+            {
+                addDamage(batX, batY, batW, batH);
+                addDamage(batNowX, batNowY, frame.getBatWidth(), frame.getBatHeight());
+            }
+
+            // make every damaged rectangle see-through again (so the wall shows),
+            // then draw the ball and bat where they are now
+            for (int d = 0; d < damaged * 4; d += 4)
+            {
+                gc.clearRect( damage[d], damage[d+1], damage[d+2], damage[d+3] );
+            }
+            if (damaged > 0)
+            {
+                displayBall( gc, frame );     // Display the Ball
+                displayBat( gc, frame );      // Display the Bat
+            }
+        }
+        rememberDrawn();
+
+        // update the score (only if it has changed)
+        if (frame.getScore() != drawnScore)
+        {
+            drawnScore = frame.getScore();
+            infoText.setText("BreakOut: Score = " + drawnScore);
+        }
+
+        if (event != null) event.end();
+        if (event != null && event.shouldCommit())
+        {
+            event.tick        = frame.getTick();
+            event.balls       = balls;
+            event.fullRepaint = full;
+            event.damaged     = damaged;
+            event.commit();
+        }
+    }
+
+    // Point the camera at the (first) ball, keeping it inside the level. If the level
+    // is no bigger than the window the camera never moves
+    private void moveCamera()
+    {
+        int viewW = (int) canvas.getWidth(), viewH = (int) canvas.getHeight();
+        int midX  = balls > 0 ? ballNowX[0] + frame.getBallWidth() / 2  : frame.getWorldWidth() / 2;
+        int midY  = balls > 0 ? ballNowY[0] + frame.getBallHeight() / 2 : frame.getWorldHeight() / 2;
+        camX = Math.max(0, Math.min(midX - viewW / 2, frame.getWorldWidth()  - viewW));
+        camY = Math.max(0, Math.min(midY - viewH / 2, frame.getWorldHeight() - viewH));
+    }
+
+    // Paint over the bricks on the wall which have disappeared since the last frame
+    // (and draw any which have come back - the game went back to a checkpoint)
+    private void updateWall( BrickStore bricks )
+    {
+        if (frame.getLiveVersion() == drawnVersion) return;    // no brick has been hit
+        GraphicsContext wc = wall.getGraphicsContext2D();
+        for (int k = 0; k < viewCount; k++)
+        {
+            int i = inView.found[k];
+            boolean live = frame.isLive(i);
+            if (shown[k] == live) continue;
+            if (live)                                         // back again
+            {
+                displayBrick(wc, bricks, i);
+            }
+            else                                              // visible before, not now
+            {
+                wc.setFill( COLOURS[Palette.GREY] );
+                wc.fillRect( bricks.x(i), bricks.y(i), bricks.w(i), bricks.h(i) );
+            }
+            shown[k] = live;
+        }
+        drawnVersion = frame.getLiveVersion();
+    }
+
+    // Draw the whole wall canvas - used for the first frame, a new level, a new canvas size
+    // or when the camera moves
+    private void drawWall( GraphicsContext gc, BrickStore bricks )
+    {
+        // clear the whole canvas to GREY
+        gc.setTransform( 1, 0, 0, 1, -camX, -camY );
+        gc.setFill( COLOURS[Palette.GREY] );
+        gc.fillRect( camX, camY, wall.getWidth(), wall.getHeight() );
+
+        // *[2]****************************************************[2]*
+        // * Display the bricks that make up the game                 *
+        // * Fill in code to display bricks from the brick array      *
+        // * Remember only a visible brick is to be displayed         *
+        // ************************************************************
+        // only the bricks in the camera's rectangle are looked at (the grid finds
+        // them), so this takes as long for a huge level as for one screen of bricks
+        viewCount = frame.getGrid().queryAll(camX, camY, (int) wall.getWidth(), (int) wall.getHeight(), inView);
+        if (shown.length < viewCount) shown = new boolean[inView.found.length];
+        for (int k = 0; k < viewCount; k++) {
+            int i = inView.found[k];
+            shown[k] = frame.isLive(i);
+            if (shown[k]) displayBrick(gc, bricks, i);
+        }
+
+        // remember which bricks are on the wall
+        drawnBricks  = bricks;
+        drawnVersion = frame.getLiveVersion();
+        drawnCamX = camX;  drawnCamY = camY;
+        fullRepaint = false;
+    }
+
+    // Remember where the balls and bat have been drawn
+    private void rememberDrawn()
+    {
+        if (ballX.length < balls)
+        {
+            ballX = new int[ballNowX.length];  ballY = new int[ballNowY.length];
+        }
+        System.arraycopy(ballNowX, 0, ballX, 0, balls);
+        System.arraycopy(ballNowY, 0, ballY, 0, balls);
+        drawnBalls = balls;
+        ballW = frame.getBallWidth();  ballH = frame.getBallHeight();
+        batX  = batNowX;   batY  = batNowY;
+        batW  = frame.getBatWidth();   batH  = frame.getBatHeight();
+    }
+
+    // A position part of the way (a = 0 to 1) from 'from' to 'to'
+    private static int lerp( int from, int to, double a )
+    {
+        return (int) Math.round(from + (to - from) * a);
+    }
+
+    // Add a damaged rectangle (with a one pixel border for the edges of the ball)
+    private void addDamage( int x, int y, int w, int h )
+    {
+        if (damaged * 4 == damage.length) damage = Arrays.copyOf(damage, damage.length * 2);
+        int d = damaged++ * 4;
+        damage[d]   = x - 1;
+        damage[d+1] = y - 1;
+        damage[d+2] = w + 2;
+        damage[d+3] = h + 2;
+    }
+
+    /**
+     * displayBat method is used to draw the bat from the frame, at its position for this screen
+     * refresh. gc.setFill will change the colour of the bat and gc.fillRect will shape it to a
+     * rectangle.
+     * @param gc        Graphics Context.
+     * @param f         the frame to draw.
+     */
+    // Display the bat - it is just a rectangle on the canvas
+    public void displayBat( GraphicsContext gc, Frame f )
+    {
+        gc.setFill( COLOURS[f.getBatColour()] );
+        gc.fillRect( batNowX, batNowY, f.getBatWidth(), f.getBatHeight() );
+    }
+
+    /**
+     * displayBrick method draws one brick from the BrickStore as a rectangle.
+     * @param gc       Graphics Context.
+     * @param store    the bricks.
+     * @param i        index of the brick to draw.
+     */
+    // Display a brick - it is just a rectangle on the canvas
+    public void displayBrick( GraphicsContext gc, BrickStore store, int i )
+    {
+        gc.setFill( COLOURS[store.colour(i)] );
+        gc.fillRect( store.x(i), store.y(i), store.w(i), store.h(i) );
+    }
+
+    /**
+     * displayBall method is used to create our balls which have same code as displayBat
+     * expect one code we use to get the shape of an object. We use fillOval instead of fillRect.
+     * Every ball in the frame is drawn.
+     * @param gc       Graphics Context.
+     * @param f        the frame to draw.
+     * @param setFill  Fill colour into the object.
+     * @param fillOval this give the ball oval shape.
+     */
+    //Display ball objects in oval shape.
+    public void displayBall( GraphicsContext gc, Frame f )
+    {
+        gc.setFill( COLOURS[f.getBallColour()] );
+        for (int b = 0; b < balls; b++)
+        {
+            gc.fillOval( ballNowX[b], ballNowY[b], f.getBallWidth(), f.getBallHeight() );
+        }
+    }
+
+    /**
+     * update method is used to update any new progress on model class. This will update the GUI.
+     * It takes the latest Frame from the Model - this does not lock the Model.
+     */
+    // This is how the View gets the game from the Model
+    // This method gets called by the animation timer (on the JavaFX thread) once
+    // for every screen refresh.
+    // It has to do whatever is required to update the GUI to show the new game position
+    public void update()
+    {
+        // Get from the model the latest picture of the ball, bat, bricks & score
+        Metrics metrics = model.getMetrics();
+        long start = System.nanoTime();
+        frame = model.getFrame();
+        if (metrics == null)
+        {
+            drawPicture();                                              // Re draw game
+            return;
+        }
+        // measure how long after it was published a new frame is drawn, and how long drawing takes
+        if (frame != null && frame.getTick() != lagTick)
+        {
+            lagTick = frame.getTick();
+            metrics.getFrameLag().record(start - frame.getPublishTime());
+        }
+        drawPicture();                                                  // Re draw game
+        metrics.getDrawTimes().record(System.nanoTime() - start);
+    }
+
+    /**
+     * drawFrame draws the given frame as if the screen refreshed at time <b>now</b>, instead
+     * of asking the Model for its latest frame.
+     * @param f      the frame to draw
+     * @param now    time (System.nanoTime) of the screen refresh
+     */
+    // used by the benchmarks to time drawPicture
+    void drawFrame( Frame f, long now )
+    {
+        frame = f;
+        drawTime = now;
+        drawPicture();
+    }
+    
+}